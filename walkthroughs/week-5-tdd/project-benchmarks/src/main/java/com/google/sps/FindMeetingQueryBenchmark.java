@@ -0,0 +1,137 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the meeting query engines as a whole, and the phases of FindMeetingQuery one at a
+ * time, on synthetic calendars of growing size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FindMeetingQueryBenchmark {
+  private static final long SEED = 42;
+
+  @Param({"10", "100", "500"})
+  public int attendees;
+
+  @Param({"4", "16"})
+  public int eventsPerAttendee;
+
+  @Param({"0.3"})
+  public double overlapDensity;
+
+  // Most requests are small; ask for a few hundred to exercise the parallel merge.
+  @Param({"8"})
+  public int invited;
+
+  @Param({"0.5"})
+  public double optionalRatio;
+
+  @Param({"30"})
+  public long duration;
+
+  private final FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
+  private final FindMeetingQuery sequentialQuery = new FindMeetingQuery(Integer.MAX_VALUE);
+  private final PackedFindMeetingQuery packedQuery = new PackedFindMeetingQuery();
+  private final OptionalAttendanceOptimizer optimizer = new OptionalAttendanceOptimizer();
+
+  private Collection<Event> events;
+  private MeetingRequest request;
+  private CalendarIndex index;
+  private CalendarModel model;
+  private Collection<TimeRange> mergedTimes;
+  private Collection<TimeRange> openRanges;
+  private Collection<Event> optionalOnlyEvents;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    SyntheticCalendar calendar = new SyntheticCalendar(SEED, attendees, eventsPerAttendee,
+        overlapDensity, invited, optionalRatio, duration);
+    events = calendar.getEvents();
+    request = calendar.getRequest();
+    index = new CalendarIndex(events);
+    model = new CalendarModel(events);
+
+    // Inputs of the later phases, so each phase is measured on its own.
+    mergedTimes = findMeetingQuery.mergeTimes(events, request);
+    openRanges = findMeetingQuery.getOpenRanges(mergedTimes, request);
+    // A lazy view, so getAllUnavailability measures filtering the events along with the sweep.
+    optionalOnlyEvents = findMeetingQuery.getOptionalOnlyEvents(events, request);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> query() {
+    return findMeetingQuery.query(events, request);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> modelQuery() {
+    return findMeetingQuery.query(model, request);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> sequentialModelQuery() {
+    return sequentialQuery.query(model, request);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> packedQuery() {
+    return packedQuery.query(events, request);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> indexedQuery() {
+    return findMeetingQuery.query(index, request);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> mergeTimes() {
+    return findMeetingQuery.mergeTimes(events, request);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> getOpenRanges() {
+    return findMeetingQuery.getOpenRanges(mergedTimes, request);
+  }
+
+  @Benchmark
+  public Collection<TimeRangeAndUnavailable> getAllUnavailability() {
+    return findMeetingQuery.getAllUnavailability(optionalOnlyEvents, request);
+  }
+
+  @Benchmark
+  public Collection<TimeRange> optimizeForOptionalAttendees() {
+    return optimizer.optimize(openRanges, events, request);
+  }
+}
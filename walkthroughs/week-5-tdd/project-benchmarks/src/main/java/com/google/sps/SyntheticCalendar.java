@@ -0,0 +1,100 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Seeded generator of large days of events and matching requests, so that every benchmark run
+ * sees the same calendar for the same parameters.
+ */
+public final class SyntheticCalendar {
+  private static final int MIN_EVENT_LENGTH = 15;
+  private static final int MAX_EVENT_LENGTH = 120;
+
+  private final List<String> people = new ArrayList<>();
+  private final Collection<Event> events = new ArrayList<>();
+  private final MeetingRequest request;
+
+  /**
+   * Builds a calendar.
+   * @param seed the seed of the random generator.
+   * @param attendeeCount how many people the calendar holds.
+   * @param eventsPerAttendee how many events each person organizes.
+   * @param overlapDensity the chance, from 0 to 1, that an event invites another person.
+   * @param invited how many people the request invites, at most {@code attendeeCount}.
+   * @param optionalRatio the share, from 0 to 1, of the request's attendees that are optional.
+   * @param duration the length of the requested meeting in minutes.
+   */
+  public SyntheticCalendar(long seed, int attendeeCount, int eventsPerAttendee,
+      double overlapDensity, int invited, double optionalRatio, long duration) {
+    if (attendeeCount < 1) {
+      throw new IllegalArgumentException("attendeeCount must be positive");
+    }
+    if (invited < 1) {
+      throw new IllegalArgumentException("invited must be positive");
+    }
+    Random random = new Random(seed);
+    for (int i = 0; i < attendeeCount; i++) {
+      people.add("Person " + i);
+    }
+
+    for (String organizer : people) {
+      for (int i = 0; i < eventsPerAttendee; i++) {
+        int start = random.nextInt(TimeRange.END_OF_DAY);
+        int length = MIN_EVENT_LENGTH + random.nextInt(MAX_EVENT_LENGTH - MIN_EVENT_LENGTH + 1);
+        int end = Math.min(start + length, TimeRange.END_OF_DAY + 1);
+
+        Set<String> attendees = new LinkedHashSet<>();
+        attendees.add(organizer);
+        while (random.nextDouble() < overlapDensity && attendees.size() < attendeeCount) {
+          attendees.add(people.get(random.nextInt(attendeeCount)));
+        }
+        events.add(new Event(organizer + " event " + i, TimeRange.fromStartEnd(start, end, false),
+            attendees));
+      }
+    }
+
+    invited = Math.min(attendeeCount, invited);
+    int optional = (int) Math.round(invited * optionalRatio);
+    List<String> mandatory = new ArrayList<>();
+    for (int i = 0; i < invited - optional; i++) {
+      mandatory.add(people.get(i));
+    }
+    request = new MeetingRequest(mandatory, duration);
+    for (int i = invited - optional; i < invited; i++) {
+      request.addOptionalAttendee(people.get(i));
+    }
+  }
+
+  /**
+   * Returns every event of the day.
+   */
+  public Collection<Event> getEvents() {
+    return events;
+  }
+
+  /**
+   * Returns the request to run against the events.
+   */
+  public MeetingRequest getRequest() {
+    return request;
+  }
+}
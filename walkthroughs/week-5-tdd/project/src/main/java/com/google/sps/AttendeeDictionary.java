@@ -0,0 +1,117 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns attendee names to dense int ids (0, 1, 2, ...), so that sets of attendees can be kept as
+ * sorted {@code int[]}s or bitmaps and compared without hashing strings. Ids are never reused or
+ * forgotten. Safe to use from several threads at once.
+ */
+public final class AttendeeDictionary {
+  private static final AttendeeDictionary DEFAULT = new AttendeeDictionary();
+
+  private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+  private volatile String[] names = new String[16];
+  private int size;
+
+  /**
+   * Returns the dictionary shared by {@code Event} and {@code MeetingRequest}.
+   */
+  public static AttendeeDictionary getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Returns the id of the given name, assigning the next free id if it hasn't been seen before.
+   */
+  public int intern(String name) {
+    Integer id = ids.get(name);
+    if (id != null) {
+      return id;
+    }
+    synchronized (this) {
+      id = ids.get(name);
+      if (id != null) {
+        return id;
+      }
+      if (size == names.length) {
+        names = Arrays.copyOf(names, 2 * size);
+      }
+      names[size] = name;
+      ids.put(name, size);
+      return size++;
+    }
+  }
+
+  /**
+   * Returns the id of the given name, or -1 if it has never been interned.
+   */
+  public int lookup(String name) {
+    Integer id = ids.get(name);
+    return id == null ? -1 : id;
+  }
+
+  /**
+   * Returns the name with the given id.
+   */
+  public String getName(int id) {
+    if (id < 0 || id >= ids.size()) {
+      throw new IllegalArgumentException("Unknown attendee id: " + id);
+    }
+    return names[id];
+  }
+
+  /**
+   * Returns the number of interned names. Every id is below this number.
+   */
+  public int size() {
+    return ids.size();
+  }
+
+  /**
+   * Interns every name and returns their ids sorted, without duplicates.
+   */
+  public int[] internAll(Collection<String> names) {
+    int[] result = new int[names.size()];
+    int count = 0;
+    for (String name : names) {
+      result[count++] = intern(name);
+    }
+    Arrays.sort(result);
+    return AttendeeSets.dedupe(result);
+  }
+
+  /**
+   * Looks up every name and returns the ids of the known ones sorted, without duplicates. Names
+   * that have never been interned are left out, so looking names up never grows the dictionary.
+   */
+  public int[] lookupAll(Collection<String> names) {
+    int[] result = new int[names.size()];
+    int count = 0;
+    for (String name : names) {
+      int id = lookup(name);
+      if (id >= 0) {
+        result[count++] = id;
+      }
+    }
+    result = Arrays.copyOf(result, count);
+    Arrays.sort(result);
+    return AttendeeSets.dedupe(result);
+  }
+}
@@ -0,0 +1,144 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+
+/**
+ * Set operations over attendee ids from an {@code AttendeeDictionary}, kept either as sorted
+ * {@code int[]}s (compared with merge scans) or as bitmaps (compared a word at a time).
+ */
+public final class AttendeeSets {
+  private AttendeeSets() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns whether the two sorted id sets share at least one id.
+   */
+  public static boolean intersects(int[] a, int[] b) {
+    int i = 0;
+    int j = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] == b[j]) {
+        return true;
+      }
+      if (a[i] < b[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns how many ids the two sorted id sets share.
+   */
+  public static int intersectionSize(int[] a, int[] b) {
+    int count = 0;
+    int i = 0;
+    int j = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] == b[j]) {
+        count++;
+        i++;
+        j++;
+      } else if (a[i] < b[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the ids the two sorted id sets share, sorted.
+   */
+  public static int[] intersection(int[] a, int[] b) {
+    int[] result = new int[Math.min(a.length, b.length)];
+    int count = 0;
+    int i = 0;
+    int j = 0;
+    while (i < a.length && j < b.length) {
+      if (a[i] == b[j]) {
+        result[count++] = a[i];
+        i++;
+        j++;
+      } else if (a[i] < b[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return count == result.length ? result : Arrays.copyOf(result, count);
+  }
+
+  /**
+   * Returns a bitmap with one bit set per id.
+   */
+  public static long[] toBitmap(int[] ids) {
+    if (ids.length == 0) {
+      return new long[0];
+    }
+    long[] bits = new long[(ids[ids.length - 1] >>> 6) + 1];
+    for (int id : ids) {
+      bits[id >>> 6] |= 1L << id;
+    }
+    return bits;
+  }
+
+  /**
+   * Returns whether the two bitmaps share at least one id.
+   */
+  public static boolean intersects(long[] a, long[] b) {
+    int words = Math.min(a.length, b.length);
+    for (int w = 0; w < words; w++) {
+      if ((a[w] & b[w]) != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns how many ids the two bitmaps share.
+   */
+  public static int intersectionSize(long[] a, long[] b) {
+    int words = Math.min(a.length, b.length);
+    int count = 0;
+    for (int w = 0; w < words; w++) {
+      count += Long.bitCount(a[w] & b[w]);
+    }
+    return count;
+  }
+
+  /**
+   * Removes the duplicates from a sorted array, returning the same array if there are none.
+   */
+  static int[] dedupe(int[] sorted) {
+    if (sorted.length == 0) {
+      return sorted;
+    }
+    int count = 1;
+    for (int i = 1; i < sorted.length; i++) {
+      if (sorted[i] != sorted[count - 1]) {
+        sorted[count++] = sorted[i];
+      }
+    }
+    return count == sorted.length ? sorted : Arrays.copyOf(sorted, count);
+  }
+}
@@ -0,0 +1,99 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The minutes of one calendar day that each attendee is outside their working hours, worked out
+ * once as a {@code MinuteBitmap} per attendee. ORing an attendee's mask into their busy minutes
+ * makes the query treat their off hours like any other busy time, so no slot outside somebody's
+ * working hours is ever generated. Attendees without working hours are available all day.
+ *
+ * <p>The masks never change once built, so they are thread-safe.
+ */
+public final class AvailabilityMasks {
+  /**
+   * Masks under which everybody is available all day.
+   */
+  public static final AvailabilityMasks NONE =
+      new AvailabilityMasks(Collections.<String, long[]>emptyMap());
+
+  private final Map<String, long[]> offHours;
+
+  private AvailabilityMasks(Map<String, long[]> offHours) {
+    this.offHours = offHours;
+  }
+
+  /**
+   * Works out the masks of the given attendees for one calendar day.
+   * @param workingHours every restricted attendee's working hours.
+   * @param day the calendar day the events and meetings take place on.
+   * @param calendarZone the time zone the calendar's times of day are counted in.
+   * @return AvailabilityMasks the off hours of every attendee in {@code workingHours}.
+   */
+  public static AvailabilityMasks of(Map<String, WorkingHours> workingHours, LocalDate day,
+      ZoneId calendarZone) {
+    if (workingHours == null) {
+      throw new IllegalArgumentException("workingHours cannot be null");
+    }
+
+    Instant dayStart = day.atStartOfDay(calendarZone).toInstant();
+    Map<String, long[]> offHours = new HashMap<>();
+    for (Map.Entry<String, WorkingHours> entry : workingHours.entrySet()) {
+      long[] off = MinuteBitmap.create();
+      MinuteBitmap.set(off, 0, MinuteBitmap.MINUTES);
+      MinuteBitmap.andNot(off, entry.getValue().workingMinutes(dayStart));
+      offHours.put(entry.getKey(), off);
+    }
+    return new AvailabilityMasks(offHours);
+  }
+
+  /**
+   * Checks if the given attendee has any off hours on this day.
+   */
+  public boolean isRestricted(String attendee) {
+    return offHours.containsKey(attendee);
+  }
+
+  /**
+   * Checks if the given attendee is working for the whole of the given range.
+   */
+  public boolean isWorking(String attendee, TimeRange range) {
+    long[] off = offHours.get(attendee);
+    return off == null || MinuteBitmap.nextSet(off, range.start()) >= range.end();
+  }
+
+  /**
+   * Marks the off hours of the given attendees as taken in {@code bits}.
+   */
+  public void addOffHours(long[] bits, Collection<String> attendees) {
+    if (offHours.isEmpty()) {
+      return;
+    }
+    for (String attendee : attendees) {
+      long[] off = offHours.get(attendee);
+      if (off != null) {
+        MinuteBitmap.or(bits, off);
+      }
+    }
+  }
+}
@@ -0,0 +1,345 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Places a whole batch of meetings on one snapshot of the calendar, so that every placement
+ * counts as busy time for the meetings placed after it. Only the required attendees are taken
+ * into account.
+ *
+ * <p>Scheduling runs in phases:
+ * <ol>
+ *   <li>{@code SNAPSHOT} indexes the events into one busy bitmap per attendee;
+ *   <li>{@code GROUPING} splits the requests into groups that share no attendee, which can't
+ *       conflict with each other and are scheduled in parallel on the common fork-join pool;
+ *   <li>{@code GREEDY} places the meetings of a group one at a time, the most constrained first,
+ *       each at the earliest time all its attendees are free;
+ *   <li>{@code LOCAL_SEARCH} tries to fit every meeting left over by moving one meeting already
+ *       placed out of its way, for at most {@code maxMoves} attempts per group.
+ * </ol>
+ * The time spent in every phase is reported with the schedule; the times of the per-group phases
+ * are summed over the groups.
+ *
+ * <p>A scheduler holds no state between calls, so it is thread-safe.
+ */
+public final class BatchScheduler {
+  /**
+   * How many moves the local search of a group tries, unless another limit is given.
+   */
+  public static final int DEFAULT_MAX_MOVES = 1000;
+
+  /**
+   * The phases of scheduling, in the order they run.
+   */
+  public enum Phase { SNAPSHOT, GROUPING, GREEDY, LOCAL_SEARCH }
+
+  private final int maxMoves;
+
+  /**
+   * Creates a scheduler that tries at most {@code DEFAULT_MAX_MOVES} moves per group.
+   */
+  public BatchScheduler() {
+    this(DEFAULT_MAX_MOVES);
+  }
+
+  /**
+   * Creates a scheduler.
+   *
+   * @param maxMoves How many moves the local search of a group tries. Must not be negative; 0
+   *     turns the local search off.
+   */
+  public BatchScheduler(int maxMoves) {
+    if (maxMoves < 0) {
+      throw new IllegalArgumentException("maxMoves cannot be negative");
+    }
+    this.maxMoves = maxMoves;
+  }
+
+  /**
+   * Places the given meetings on the calendar.
+   * @param events all the Events throughout the day.
+   * @param requests the meetings to place.
+   * @return Schedule when every meeting takes place, or that it couldn't be placed.
+   */
+  public Schedule schedule(Collection<Event> events, List<MeetingRequest> requests) {
+    if (events == null || requests == null) {
+      throw new IllegalArgumentException("events and requests cannot be null");
+    }
+
+    Map<Phase, AtomicLong> nanos = new EnumMap<>(Phase.class);
+    for (Phase phase : Phase.values()) {
+      nanos.put(phase, new AtomicLong());
+    }
+
+    long start = System.nanoTime();
+    CalendarIndex index = new CalendarIndex(events);
+    nanos.get(Phase.SNAPSHOT).addAndGet(System.nanoTime() - start);
+
+    start = System.nanoTime();
+    List<List<Integer>> groups = group(requests);
+    nanos.get(Phase.GROUPING).addAndGet(System.nanoTime() - start);
+
+    TimeRange[] placements = new TimeRange[requests.size()];
+    groups.parallelStream().forEach(
+        group -> new GroupScheduler(index, requests, group, placements, nanos).run());
+
+    Map<Phase, Long> phaseNanos = new EnumMap<>(Phase.class);
+    for (Map.Entry<Phase, AtomicLong> entry : nanos.entrySet()) {
+      phaseNanos.put(entry.getKey(), entry.getValue().get());
+    }
+    return new Schedule(Arrays.asList(placements), phaseNanos);
+  }
+
+  /**
+   * Splits the requests into groups that share no required attendee, with a union-find over the
+   * attendees. Every group lists its requests in ascending order.
+   */
+  private static List<List<Integer>> group(List<MeetingRequest> requests) {
+    int[] parents = new int[requests.size()];
+    for (int i = 0; i < parents.length; i++) {
+      parents[i] = i;
+    }
+    Map<String, Integer> firstRequest = new HashMap<>();
+    for (int i = 0; i < requests.size(); i++) {
+      for (String attendee : requests.get(i).getAttendees()) {
+        Integer first = firstRequest.putIfAbsent(attendee, i);
+        if (first != null) {
+          parents[find(parents, i)] = find(parents, first);
+        }
+      }
+    }
+
+    Map<Integer, List<Integer>> groups = new HashMap<>();
+    List<List<Integer>> ordered = new ArrayList<>();
+    for (int i = 0; i < requests.size(); i++) {
+      int root = find(parents, i);
+      List<Integer> group = groups.get(root);
+      if (group == null) {
+        group = new ArrayList<>();
+        groups.put(root, group);
+        ordered.add(group);
+      }
+      group.add(i);
+    }
+    return ordered;
+  }
+
+  private static int find(int[] parents, int i) {
+    while (parents[i] != i) {
+      parents[i] = parents[parents[i]];
+      i = parents[i];
+    }
+    return i;
+  }
+
+  /**
+   * Schedules the meetings of one group on its own copy of its attendees' busy bitmaps. The groups
+   * share one array of placements, in which each group only reads and writes its own meetings.
+   */
+  private final class GroupScheduler {
+    private final List<MeetingRequest> requests;
+    private final List<Integer> group;
+    private final Map<Phase, AtomicLong> nanos;
+    // The busy minutes of every attendee of the group, including the meetings placed so far.
+    private final Map<String, long[]> busy = new HashMap<>();
+    private final TimeRange[] placed;
+
+    GroupScheduler(CalendarIndex index, List<MeetingRequest> requests, List<Integer> group,
+        TimeRange[] placements, Map<Phase, AtomicLong> nanos) {
+      this.requests = requests;
+      this.group = new ArrayList<>(group);
+      this.nanos = nanos;
+      this.placed = placements;
+      for (int i : group) {
+        for (String attendee : requests.get(i).getAttendees()) {
+          if (!busy.containsKey(attendee)) {
+            busy.put(attendee, index.busyMinutes(Collections.singleton(attendee)));
+          }
+        }
+      }
+    }
+
+    /**
+     * Places the meetings of the group.
+     */
+    void run() {
+      long start = System.nanoTime();
+      // The meetings with the most attendees, and then the longest ones, are the hardest to fit.
+      Collections.sort(group, new Comparator<Integer>() {
+        @Override
+        public int compare(Integer a, Integer b) {
+          MeetingRequest x = requests.get(a);
+          MeetingRequest y = requests.get(b);
+          int byAttendees = Integer.compare(y.getAttendees().size(), x.getAttendees().size());
+          if (byAttendees != 0) {
+            return byAttendees;
+          }
+          int byDuration = Long.compare(y.getDuration(), x.getDuration());
+          return byDuration != 0 ? byDuration : Integer.compare(a, b);
+        }
+      });
+      List<Integer> unplaced = new ArrayList<>();
+      for (int i : group) {
+        if (!place(i)) {
+          unplaced.add(i);
+        }
+      }
+      nanos.get(Phase.GREEDY).addAndGet(System.nanoTime() - start);
+
+      start = System.nanoTime();
+      int moves = 0;
+      for (int u : unplaced) {
+        for (int p : group) {
+          if (moves == maxMoves) {
+            break;
+          }
+          if (placed[p] == null || !sharesAttendee(u, p)) {
+            continue;
+          }
+          moves++;
+          if (tryMove(p, u)) {
+            break;
+          }
+        }
+      }
+      nanos.get(Phase.LOCAL_SEARCH).addAndGet(System.nanoTime() - start);
+    }
+
+    /**
+     * Takes meeting {@code p} out, places meeting {@code u}, and places {@code p} again. If either
+     * doesn't fit, everything is put back as it was.
+     * @return boolean true if both meetings are placed.
+     */
+    private boolean tryMove(int p, int u) {
+      TimeRange old = placed[p];
+      unmark(p, old);
+      placed[p] = null;
+      if (place(u)) {
+        if (place(p)) {
+          return true;
+        }
+        unmark(u, placed[u]);
+        placed[u] = null;
+      }
+      placed[p] = old;
+      mark(p, old);
+      return false;
+    }
+
+    /**
+     * Places meeting {@code i} at the earliest time all its attendees are free. Like
+     * {@code FindMeetingQuery.query}, a meeting at the end of the day must end by
+     * {@code TimeRange.END_OF_DAY}.
+     * @return boolean true if the meeting fits anywhere.
+     */
+    private boolean place(int i) {
+      MeetingRequest request = requests.get(i);
+      long[] taken = MinuteBitmap.create();
+      for (String attendee : request.getAttendees()) {
+        MinuteBitmap.or(taken, busy.get(attendee));
+      }
+      long duration = request.getDuration();
+      int start = MinuteBitmap.nextClear(taken, 0);
+      while (start < MinuteBitmap.MINUTES) {
+        int end = MinuteBitmap.nextSet(taken, start);
+        int usableEnd = end == MinuteBitmap.MINUTES ? TimeRange.END_OF_DAY : end;
+        if (usableEnd - start >= duration) {
+          placed[i] = TimeRange.fromStartDuration(start, (int) duration);
+          mark(i, placed[i]);
+          return true;
+        }
+        start = MinuteBitmap.nextClear(taken, end);
+      }
+      return false;
+    }
+
+    private void mark(int i, TimeRange when) {
+      for (String attendee : requests.get(i).getAttendees()) {
+        MinuteBitmap.set(busy.get(attendee), when.start(), when.end());
+      }
+    }
+
+    /**
+     * Frees the minutes of a placed meeting again. A meeting is only ever placed where all its
+     * attendees were free, so clearing its minutes doesn't free any other busy time.
+     */
+    private void unmark(int i, TimeRange when) {
+      for (String attendee : requests.get(i).getAttendees()) {
+        long[] bits = busy.get(attendee);
+        long[] freed = MinuteBitmap.create();
+        MinuteBitmap.set(freed, when.start(), when.end());
+        MinuteBitmap.andNot(bits, freed);
+      }
+    }
+
+    private boolean sharesAttendee(int a, int b) {
+      return !Collections.disjoint(requests.get(a).getAttendees(),
+          requests.get(b).getAttendees());
+    }
+  }
+
+  /**
+   * The outcome of scheduling a batch: where every meeting was placed, and how long every phase
+   * took.
+   */
+  public static final class Schedule {
+    private final List<TimeRange> placements;
+    private final Map<Phase, Long> phaseNanos;
+
+    private Schedule(List<TimeRange> placements, Map<Phase, Long> phaseNanos) {
+      this.placements = Collections.unmodifiableList(placements);
+      this.phaseNanos = Collections.unmodifiableMap(phaseNanos);
+    }
+
+    /**
+     * Returns when every meeting takes place, in the order the requests were given. A meeting
+     * that couldn't be placed is null.
+     */
+    public List<TimeRange> getPlacements() {
+      return placements;
+    }
+
+    /**
+     * Returns how many meetings couldn't be placed.
+     */
+    public int getUnplacedCount() {
+      int unplaced = 0;
+      for (TimeRange placement : placements) {
+        if (placement == null) {
+          unplaced++;
+        }
+      }
+      return unplaced;
+    }
+
+    /**
+     * Returns the nanoseconds spent in every phase.
+     */
+    public Map<Phase, Long> getPhaseNanos() {
+      return phaseNanos;
+    }
+  }
+}
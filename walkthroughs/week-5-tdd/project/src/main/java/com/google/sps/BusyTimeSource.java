@@ -0,0 +1,45 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Something that knows the events of a day and can tell when a group of attendees is busy, with
+ * their busy times already merged.
+ */
+public interface BusyTimeSource {
+
+  /**
+   * Returns the events of the day.
+   */
+  Collection<Event> getEvents();
+
+  /**
+   * Returns the times at least one of the given attendees is busy, merged and in ascending order of
+   * start time.
+   */
+  List<TimeRange> getMergedBusyTimes(Collection<String> attendees);
+
+  /**
+   * Returns the merged busy times of one attendee, in ascending order of start time. Sources that
+   * keep every attendee's timeline should return it directly.
+   */
+  default List<TimeRange> getTimeline(String attendee) {
+    return getMergedBusyTimes(Collections.singleton(attendee));
+  }
+}
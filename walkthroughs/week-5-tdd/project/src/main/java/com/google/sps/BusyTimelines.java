@@ -0,0 +1,160 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Each attendee's busy times for one day, sorted and merged. A timeline is computed the first time
+ * an attendee is asked about and then shared, so a batch of requests over the same people only
+ * merges every person's events once. Safe to use from several threads at once.
+ *
+ * <p>When many attendees are asked about at once, their timelines are joined by a
+ * {@code TimelineUnion} on the common fork-join pool, so the work spreads over all the cores
+ * instead of sorting every busy time on one thread. Build the timelines once and share them
+ * between queries; building them costs a pass over every event.
+ */
+public final class BusyTimelines implements BusyTimeSource {
+  /**
+   * How many attendees a request needs before their timelines are joined in parallel, unless
+   * another threshold is given.
+   */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 64;
+
+  private final Collection<Event> events;
+  private final int parallelThreshold;
+  private final Map<String, List<Event>> eventsByAttendee = new HashMap<>();
+  private final ConcurrentHashMap<String, List<TimeRange>> timelines = new ConcurrentHashMap<>();
+
+  /**
+   * Creates the timelines for the given events.
+   *
+   * @param events The events of the day. Must be non-null.
+   */
+  public BusyTimelines(Collection<Event> events) {
+    this(events, DEFAULT_PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Creates the timelines for the given events.
+   *
+   * @param events The events of the day. Must be non-null.
+   * @param parallelThreshold How many distinct attendees {@code getMergedBusyTimes} needs before
+   *     it joins their timelines in parallel. Must be positive.
+   */
+  public BusyTimelines(Collection<Event> events, int parallelThreshold) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null");
+    }
+    if (parallelThreshold <= 0) {
+      throw new IllegalArgumentException("parallelThreshold must be positive");
+    }
+
+    this.parallelThreshold = parallelThreshold;
+    this.events = Collections.unmodifiableCollection(events);
+    for (Event e : events) {
+      for (String attendee : e.getAttendees()) {
+        List<Event> attendeeEvents = eventsByAttendee.get(attendee);
+        if (attendeeEvents == null) {
+          attendeeEvents = new ArrayList<>();
+          eventsByAttendee.put(attendee, attendeeEvents);
+        }
+        attendeeEvents.add(e);
+      }
+    }
+  }
+
+  /**
+   * Returns a read-only view of the events these timelines were built from.
+   */
+  @Override
+  public Collection<Event> getEvents() {
+    return events;
+  }
+
+  /**
+   * Returns the merged busy times of one attendee, in ascending order of start time.
+   */
+  @Override
+  public List<TimeRange> getTimeline(String attendee) {
+    List<TimeRange> timeline = timelines.get(attendee);
+    if (timeline == null) {
+      timeline = timelines.computeIfAbsent(attendee, this::computeTimeline);
+    }
+    return timeline;
+  }
+
+  /**
+   * Returns the times at least one of the given attendees is busy, merged and in ascending order of
+   * start time.
+   */
+  @Override
+  public List<TimeRange> getMergedBusyTimes(Collection<String> attendees) {
+    List<String> distinct = new ArrayList<>(new HashSet<>(attendees));
+    if (distinct.size() >= parallelThreshold) {
+      return TimelineUnion.union(this, distinct);
+    }
+    return mergeTimelines(distinct, 0, distinct.size());
+  }
+
+  /**
+   * Returns the merged busy times of the attendees in {@code attendees[from..to)}.
+   */
+  private List<TimeRange> mergeTimelines(List<String> attendees, int from, int to) {
+    List<TimeRange> busy = new ArrayList<>();
+    for (int i = from; i < to; i++) {
+      busy.addAll(getTimeline(attendees.get(i)));
+    }
+    return merge(busy);
+  }
+
+  private List<TimeRange> computeTimeline(String attendee) {
+    List<Event> attendeeEvents = eventsByAttendee.get(attendee);
+    if (attendeeEvents == null) {
+      return Collections.emptyList();
+    }
+    List<TimeRange> busy = new ArrayList<>();
+    for (Event e : attendeeEvents) {
+      busy.add(e.getWhen());
+    }
+    return Collections.unmodifiableList(merge(busy));
+  }
+
+  /**
+   * Sorts the ranges and merges the overlapping ones, the same way {@code FindMeetingQuery} does.
+   */
+  private static List<TimeRange> merge(List<TimeRange> ranges) {
+    Collections.sort(ranges, TimeRange.ORDER_BY_START);
+    List<TimeRange> merged = new ArrayList<>();
+    for (TimeRange range : ranges) {
+      int last = merged.size() - 1;
+      if (last >= 0 && merged.get(last).overlaps(range)) {
+        TimeRange previous = merged.get(last);
+        merged.set(last, TimeRange.fromStartEnd(previous.start(),
+            Math.max(previous.end(), range.end()), false));
+      } else {
+        merged.add(range);
+      }
+    }
+    return merged;
+  }
+}
@@ -0,0 +1,447 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A calendar stored in a compact binary file, which is memory-mapped and queried in place, so
+ * opening even a large calendar only decodes the attendee names, to intern them into the default
+ * {@code AttendeeDictionary} once, and creates no {@code Event} objects. Events are only created
+ * for the events a caller reads, and don't intern their attendees again.
+ *
+ * <p>The file holds, in this order and big-endian:
+ * <ul>
+ *   <li>a header: the magic number, the format version, the number of events, the number of
+ *       attendees, the lengths of the attendee lists and of the postings, and the length of the
+ *       strings, as seven ints followed by one reserved int;
+ *   <li>the attendee dictionary, sorted by the UTF-8 bytes of the names: for every attendee the
+ *       offset and length of its name within the strings, and the first index and number of its
+ *       postings;
+ *   <li>the events, sorted by start: for every event its start, its duration, the offset and
+ *       length of its title within the strings, and the first index and number of its attendees
+ *       within the attendee lists;
+ *   <li>the attendee lists, one attendee number per int;
+ *   <li>the postings, one event number per int, ascending for every attendee;
+ *   <li>the strings, every name and title in UTF-8.
+ * </ul>
+ *
+ * <p>A {@code CalendarFile} never changes, so it is thread-safe.
+ */
+public final class CalendarFile implements EventStore {
+  private static final int MAGIC = 0x43414C31; // "CAL1"
+  private static final int FORMAT_VERSION = 1;
+
+  private static final int HEADER_BYTES = 32;
+  private static final int ATTENDEE_BYTES = 16;
+  private static final int EVENT_BYTES = 24;
+
+  /**
+   * Orders UTF-8 encoded names by their unsigned bytes, which is the order the dictionary is
+   * sorted in.
+   */
+  private static final Comparator<byte[]> ORDER_BY_BYTES = new Comparator<byte[]>() {
+    @Override
+    public int compare(byte[] a, byte[] b) {
+      int length = Math.min(a.length, b.length);
+      for (int i = 0; i < length; i++) {
+        int difference = (a[i] & 0xFF) - (b[i] & 0xFF);
+        if (difference != 0) {
+          return difference;
+        }
+      }
+      return a.length - b.length;
+    }
+  };
+
+  private final ByteBuffer buffer;
+  private final int size;
+  private final int attendeeCount;
+  private final int attendeesOffset;
+  private final int eventsOffset;
+  private final int listsOffset;
+  private final int postingsOffset;
+  private final int stringsOffset;
+  // The id of every attendee in the default AttendeeDictionary.
+  private final int[] dictionaryIds;
+
+  private CalendarFile(ByteBuffer buffer) throws IOException {
+    this.buffer = buffer;
+    if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+      throw new IOException("not a calendar file");
+    }
+    if (buffer.getInt(4) != FORMAT_VERSION) {
+      throw new IOException("unsupported calendar file version " + buffer.getInt(4));
+    }
+    size = buffer.getInt(8);
+    attendeeCount = buffer.getInt(12);
+    int listLength = buffer.getInt(16);
+    int postingLength = buffer.getInt(20);
+    int stringsLength = buffer.getInt(24);
+    if (size < 0 || attendeeCount < 0 || listLength < 0 || postingLength < 0
+        || stringsLength < 0) {
+      throw new IOException("corrupt calendar file");
+    }
+
+    long eventsStart = HEADER_BYTES + (long) ATTENDEE_BYTES * attendeeCount;
+    long listsStart = eventsStart + (long) EVENT_BYTES * size;
+    long postingsStart = listsStart + 4L * listLength;
+    long stringsStart = postingsStart + 4L * postingLength;
+    if (stringsStart + stringsLength != buffer.capacity()) {
+      throw new IOException("corrupt calendar file");
+    }
+    attendeesOffset = HEADER_BYTES;
+    eventsOffset = (int) eventsStart;
+    listsOffset = (int) listsStart;
+    postingsOffset = (int) postingsStart;
+    stringsOffset = (int) stringsStart;
+
+    dictionaryIds = new int[attendeeCount];
+    for (int a = 0; a < attendeeCount; a++) {
+      int entry = attendeesOffset + a * ATTENDEE_BYTES;
+      dictionaryIds[a] = AttendeeDictionary.getDefault().intern(
+          string(buffer.getInt(entry), buffer.getInt(entry + 4)));
+    }
+  }
+
+  /**
+   * Memory-maps a calendar file written by {@code write}. The mapping stays valid after this
+   * method returns, and lasts until the {@code CalendarFile} is garbage collected.
+   */
+  public static CalendarFile open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("calendar file is too large: " + channel.size() + " bytes");
+      }
+      return new CalendarFile(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Writes the given events to a calendar file, replacing the file if it exists.
+   */
+  public static void write(Collection<Event> events, Path path) throws IOException {
+    List<Event> sorted = new ArrayList<>(events);
+    Collections.sort(sorted, Event.ORDER_BY_START);
+
+    // Number the attendees in the order of their encoded names.
+    TreeSet<byte[]> encodedNames = new TreeSet<>(ORDER_BY_BYTES);
+    for (Event e : sorted) {
+      for (String attendee : e.getAttendees()) {
+        encodedNames.add(attendee.getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    List<byte[]> names = new ArrayList<>(encodedNames);
+    Map<String, Integer> ids = new HashMap<>();
+    for (int id = 0; id < names.size(); id++) {
+      ids.put(new String(names.get(id), StandardCharsets.UTF_8), id);
+    }
+
+    // Collect every event's attendees, and every attendee's events.
+    List<int[]> lists = new ArrayList<>(sorted.size());
+    int[] postingCounts = new int[names.size()];
+    int listLength = 0;
+    for (Event e : sorted) {
+      Set<String> attendees = new LinkedHashSet<>(e.getAttendees());
+      int[] list = new int[attendees.size()];
+      int i = 0;
+      for (String attendee : attendees) {
+        list[i] = ids.get(attendee);
+        postingCounts[list[i]]++;
+        i++;
+      }
+      lists.add(list);
+      listLength += list.length;
+    }
+    int[] firstPostings = new int[names.size() + 1];
+    for (int id = 0; id < names.size(); id++) {
+      firstPostings[id + 1] = firstPostings[id] + postingCounts[id];
+    }
+    int[] postings = new int[firstPostings[names.size()]];
+    int[] next = Arrays.copyOf(firstPostings, names.size());
+    for (int e = 0; e < sorted.size(); e++) {
+      for (int id : lists.get(e)) {
+        postings[next[id]++] = e;
+      }
+    }
+
+    List<byte[]> titles = new ArrayList<>(sorted.size());
+    long stringsLength = 0;
+    for (byte[] name : names) {
+      stringsLength += name.length;
+    }
+    for (Event e : sorted) {
+      byte[] title = e.getTitle().getBytes(StandardCharsets.UTF_8);
+      titles.add(title);
+      stringsLength += title.length;
+    }
+    long fileLength = HEADER_BYTES + (long) ATTENDEE_BYTES * names.size()
+        + (long) EVENT_BYTES * sorted.size() + 4L * listLength + 4L * postings.length
+        + stringsLength;
+    if (fileLength > Integer.MAX_VALUE) {
+      throw new IOException("calendar is too large for one file: " + fileLength + " bytes");
+    }
+
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+        Files.newOutputStream(path)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      out.writeInt(sorted.size());
+      out.writeInt(names.size());
+      out.writeInt(listLength);
+      out.writeInt(postings.length);
+      out.writeInt((int) stringsLength);
+      out.writeInt(0);
+
+      int stringOffset = 0;
+      for (int id = 0; id < names.size(); id++) {
+        out.writeInt(stringOffset);
+        out.writeInt(names.get(id).length);
+        out.writeInt(firstPostings[id]);
+        out.writeInt(postingCounts[id]);
+        stringOffset += names.get(id).length;
+      }
+      int listOffset = 0;
+      for (int e = 0; e < sorted.size(); e++) {
+        TimeRange when = sorted.get(e).getWhen();
+        out.writeInt(when.start());
+        out.writeInt(when.duration());
+        out.writeInt(stringOffset);
+        out.writeInt(titles.get(e).length);
+        out.writeInt(listOffset);
+        out.writeInt(lists.get(e).length);
+        stringOffset += titles.get(e).length;
+        listOffset += lists.get(e).length;
+      }
+      for (int[] list : lists) {
+        for (int id : list) {
+          out.writeInt(id);
+        }
+      }
+      for (int event : postings) {
+        out.writeInt(event);
+      }
+      for (byte[] name : names) {
+        out.write(name);
+      }
+      for (byte[] title : titles) {
+        out.write(title);
+      }
+    }
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns a view of every event, sorted by start. The {@code Event} objects are created as
+   * they are read.
+   */
+  @Override
+  public List<Event> getEvents() {
+    return new EventList(null);
+  }
+
+  @Override
+  public List<Event> getEventsFor(Collection<String> attendees) {
+    return new EventList(eventsFor(attendees));
+  }
+
+  @Override
+  public List<TimeRange> getMergedBusyTimes(Collection<String> attendees) {
+    // The events are sorted by start, so ascending event numbers are already in start order.
+    List<TimeRange> merged = new ArrayList<>();
+    int lastStart = 0;
+    int lastEnd = Integer.MIN_VALUE;
+    for (int e : eventsFor(attendees)) {
+      int record = eventsOffset + e * EVENT_BYTES;
+      int start = buffer.getInt(record);
+      int duration = buffer.getInt(record + 4);
+      if (duration <= 0) {
+        continue;
+      }
+      if (start < lastEnd) {
+        lastEnd = Math.max(lastEnd, start + duration);
+      } else {
+        if (lastEnd != Integer.MIN_VALUE) {
+          merged.add(TimeRange.fromStartEnd(lastStart, lastEnd, false));
+        }
+        lastStart = start;
+        lastEnd = start + duration;
+      }
+    }
+    if (lastEnd != Integer.MIN_VALUE) {
+      merged.add(TimeRange.fromStartEnd(lastStart, lastEnd, false));
+    }
+    return merged;
+  }
+
+  /**
+   * The file never changes, so its version is always 0.
+   */
+  @Override
+  public long getVersion() {
+    return 0;
+  }
+
+  /**
+   * Returns the numbers of the events any of the given attendees takes part in, ascending and
+   * without duplicates.
+   */
+  private int[] eventsFor(Collection<String> attendees) {
+    int count = 0;
+    int[] events = new int[0];
+    for (String attendee : attendees) {
+      int id = find(attendee.getBytes(StandardCharsets.UTF_8));
+      if (id < 0) {
+        continue;
+      }
+      int entry = attendeesOffset + id * ATTENDEE_BYTES;
+      int first = buffer.getInt(entry + 8);
+      int postingCount = buffer.getInt(entry + 12);
+      if (count + postingCount > events.length) {
+        events = Arrays.copyOf(events, Math.max(2 * events.length, count + postingCount));
+      }
+      for (int i = 0; i < postingCount; i++) {
+        events[count++] = buffer.getInt(postingsOffset + 4 * (first + i));
+      }
+    }
+
+    Arrays.sort(events, 0, count);
+    int distinct = 0;
+    for (int i = 0; i < count; i++) {
+      if (distinct == 0 || events[i] != events[distinct - 1]) {
+        events[distinct++] = events[i];
+      }
+    }
+    return Arrays.copyOf(events, distinct);
+  }
+
+  /**
+   * Returns the number of the attendee with the given encoded name, or -1 if there is none.
+   */
+  private int find(byte[] name) {
+    int low = 0;
+    int high = attendeeCount - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int entry = attendeesOffset + mid * ATTENDEE_BYTES;
+      int comparison = compareString(buffer.getInt(entry), buffer.getInt(entry + 4), name);
+      if (comparison < 0) {
+        low = mid + 1;
+      } else if (comparison > 0) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Compares the string stored at the given offset with the given bytes, the same way as
+   * {@code ORDER_BY_BYTES}.
+   */
+  private int compareString(int offset, int length, byte[] other) {
+    int common = Math.min(length, other.length);
+    for (int i = 0; i < common; i++) {
+      int difference = (buffer.get(stringsOffset + offset + i) & 0xFF) - (other[i] & 0xFF);
+      if (difference != 0) {
+        return difference;
+      }
+    }
+    return length - other.length;
+  }
+
+  /**
+   * Decodes the string stored at the given offset.
+   */
+  private String string(int offset, int length) {
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = buffer.get(stringsOffset + offset + i);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Creates the {@code Event} stored at the given index.
+   */
+  private Event event(int index) {
+    int record = eventsOffset + index * EVENT_BYTES;
+    int first = buffer.getInt(record + 16);
+    int count = buffer.getInt(record + 20);
+    List<String> attendees = new ArrayList<>(count);
+    int[] attendeeIds = new int[count];
+    for (int i = 0; i < count; i++) {
+      int attendee = buffer.getInt(listsOffset + 4 * (first + i));
+      int entry = attendeesOffset + attendee * ATTENDEE_BYTES;
+      attendees.add(string(buffer.getInt(entry), buffer.getInt(entry + 4)));
+      attendeeIds[i] = dictionaryIds[attendee];
+    }
+    Arrays.sort(attendeeIds);
+    return new Event(string(buffer.getInt(record + 8), buffer.getInt(record + 12)),
+        TimeRange.fromStartDuration(buffer.getInt(record), buffer.getInt(record + 4)), attendees,
+        attendeeIds);
+  }
+
+  /**
+   * A view of some of the events of the file, which creates each {@code Event} as it is read.
+   * Named rather than anonymous so that Gson serializes it like any other list.
+   */
+  private final class EventList extends AbstractList<Event> {
+    // The indices of the events in the view, or null for all of them.
+    private final int[] indices;
+
+    EventList(int[] indices) {
+      this.indices = indices;
+    }
+
+    @Override
+    public Event get(int index) {
+      if (index < 0 || index >= size()) {
+        throw new IndexOutOfBoundsException("index " + index + " of " + size());
+      }
+      return event(indices == null ? index : indices[index]);
+    }
+
+    @Override
+    public int size() {
+      return indices == null ? size : indices.length;
+    }
+  }
+}
@@ -0,0 +1,219 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index over a day of events that holds, for each attendee, a bitmap of the minutes they are busy.
+ * Finding when a group of people is free is then an OR of their bitmaps plus a scan for runs of
+ * free minutes, instead of sorting and merging all the events. The index is read-only once built.
+ */
+public final class CalendarIndex {
+  private final Collection<Event> events;
+  private final Map<String, long[]> busyByAttendee = new HashMap<>();
+
+  /**
+   * Builds the index for the given events.
+   *
+   * @param events The events of the day, e.g. {@code Events.events}. Must be non-null.
+   */
+  public CalendarIndex(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null");
+    }
+
+    this.events = Collections.unmodifiableCollection(events);
+    for (Event e : events) {
+      TimeRange when = e.getWhen();
+      for (String attendee : e.getAttendees()) {
+        long[] busy = busyByAttendee.get(attendee);
+        if (busy == null) {
+          busy = MinuteBitmap.create();
+          busyByAttendee.put(attendee, busy);
+        }
+        MinuteBitmap.set(busy, when.start(), when.end());
+      }
+    }
+  }
+
+  /**
+   * Returns a read-only view of the events this index was built from.
+   */
+  public Collection<Event> getEvents() {
+    return events;
+  }
+
+  /**
+   * Returns a new bitmap holding every minute at least one of the given attendees is busy.
+   * Attendees without any events are free all day.
+   */
+  public long[] busyMinutes(Collection<String> attendees) {
+    long[] busy = MinuteBitmap.create();
+    for (String attendee : attendees) {
+      long[] attendeeBusy = busyByAttendee.get(attendee);
+      if (attendeeBusy != null) {
+        MinuteBitmap.or(busy, attendeeBusy);
+      }
+    }
+    return busy;
+  }
+
+  /**
+   * Returns the ranges of the day when all the given attendees are free and that can hold a
+   * meeting of the given duration. Like {@code FindMeetingQuery.query}, a range that runs to the
+   * end of the day must fit the meeting before {@code TimeRange.END_OF_DAY}.
+   * @param attendees the people who must all be free.
+   * @param duration the length of the meeting in minutes.
+   * @return Collection<TimeRange> the free ranges, in ascending order of start time.
+   */
+  public Collection<TimeRange> freeRanges(Collection<String> attendees, long duration) {
+    return freeRanges(attendees, duration, AvailabilityMasks.NONE);
+  }
+
+  /**
+   * Same as {@code freeRanges}, but the minutes outside any of the attendees' working hours are
+   * taken as well, so no range starts before or runs past somebody's working day.
+   * @param attendees the people who must all be free.
+   * @param duration the length of the meeting in minutes.
+   * @param masks the off hours of the attendees on this day.
+   * @return Collection<TimeRange> the free ranges, in ascending order of start time.
+   */
+  public Collection<TimeRange> freeRanges(Collection<String> attendees, long duration,
+      AvailabilityMasks masks) {
+    long[] busy = busyMinutes(attendees);
+    masks.addOffHours(busy, attendees);
+    return freeRanges(busy, duration);
+  }
+
+  /**
+   * Returns the ranges of the day when all the request's attendees are free, within their working
+   * hours, and that can hold the meeting. If the request asks for a room, the minutes when none of
+   * its rooms that seat everyone is free are taken as well, in the same pass over the bitmaps.
+   * @param request the MeetingRequest we are trying to satisfy.
+   * @param masks the off hours of the attendees on this day.
+   * @return Collection<TimeRange> the free ranges, in ascending order of start time.
+   */
+  public Collection<TimeRange> freeRanges(MeetingRequest request, AvailabilityMasks masks) {
+    return freeRanges(busyMinutes(request, masks), request.getDuration());
+  }
+
+  /**
+   * Returns a new bitmap of every minute the request can't take place: when a mandatory attendee
+   * is busy or outside their working hours, or, if the request asks for a room, when none of its
+   * rooms that seat everyone is free. Package-private so a query can time this phase on its own.
+   */
+  long[] busyMinutes(MeetingRequest request, AvailabilityMasks masks) {
+    long[] busy = busyMinutes(request.getAttendees());
+    masks.addOffHours(busy, request.getAttendees());
+    if (!request.getRooms().isEmpty()) {
+      MinuteBitmap.or(busy, roomlessMinutes(request.getRooms(), request.getSeats()));
+    }
+    return busy;
+  }
+
+  /**
+   * Pairs the given slots with rooms. Within every slot, each room that seats everyone is tried
+   * from the smallest up, and the stretches of the slot where it is free and that can still hold
+   * the meeting are kept, unless smaller rooms already cover them.
+   * @param slots the possible meeting times, which must not overlap each other.
+   * @param rooms the rooms to pick from.
+   * @param seats how many people the room must seat.
+   * @param duration the length of the meeting in minutes.
+   * @return List<RoomSlot> the slots with their rooms, in {@code RoomSlot.ORDER_BY_START} order.
+   */
+  public List<RoomSlot> assignRooms(Collection<TimeRange> slots, Collection<Room> rooms,
+      int seats, long duration) {
+    List<Room> fitting = fittingRooms(rooms, seats);
+    List<RoomSlot> assigned = new ArrayList<>();
+    long[] covered = MinuteBitmap.create();
+    long[] unbooked = MinuteBitmap.create();
+    for (TimeRange slot : slots) {
+      for (Room room : fitting) {
+        long[] roomBusy = busyByAttendee.get(room.getName());
+        if (roomBusy == null) {
+          roomBusy = unbooked;
+        }
+        int start = MinuteBitmap.nextClear(roomBusy, slot.start());
+        while (start < slot.end()) {
+          int end = Math.min(MinuteBitmap.nextSet(roomBusy, start), slot.end());
+          int usableEnd = end == MinuteBitmap.MINUTES ? TimeRange.END_OF_DAY : end;
+          if (usableEnd - start >= duration && MinuteBitmap.nextClear(covered, start) < end) {
+            assigned.add(new RoomSlot(TimeRange.fromStartEnd(start, end, false), room));
+            MinuteBitmap.set(covered, start, end);
+          }
+          start = MinuteBitmap.nextClear(roomBusy, end);
+        }
+      }
+    }
+    Collections.sort(assigned, RoomSlot.ORDER_BY_START);
+    return assigned;
+  }
+
+  /**
+   * Returns a new bitmap of the minutes when none of the rooms that seat everyone is free. Every
+   * minute is taken if no room is big enough.
+   */
+  private long[] roomlessMinutes(Collection<Room> rooms, int seats) {
+    long[] roomless = MinuteBitmap.create();
+    MinuteBitmap.set(roomless, 0, MinuteBitmap.MINUTES);
+    for (Room room : fittingRooms(rooms, seats)) {
+      long[] roomBusy = busyByAttendee.get(room.getName());
+      if (roomBusy == null) {
+        return MinuteBitmap.create();
+      }
+      MinuteBitmap.and(roomless, roomBusy);
+    }
+    return roomless;
+  }
+
+  /**
+   * Returns the rooms that seat at least {@code seats} people, from the smallest up.
+   */
+  private static List<Room> fittingRooms(Collection<Room> rooms, int seats) {
+    List<Room> fitting = new ArrayList<>();
+    for (Room room : rooms) {
+      if (room.getCapacity() >= seats) {
+        fitting.add(room);
+      }
+    }
+    Collections.sort(fitting, Room.ORDER_BY_CAPACITY);
+    return fitting;
+  }
+
+  /**
+   * Returns the runs of free minutes in {@code busy} that can hold a meeting of the given
+   * duration. Like {@code FindMeetingQuery.query}, a range that runs to the end of the day must
+   * fit the meeting before {@code TimeRange.END_OF_DAY}.
+   */
+  static Collection<TimeRange> freeRanges(long[] busy, long duration) {
+    List<TimeRange> free = new ArrayList<>();
+    int start = MinuteBitmap.nextClear(busy, 0);
+    while (start < MinuteBitmap.MINUTES) {
+      int end = MinuteBitmap.nextSet(busy, start);
+      int usableEnd = end == MinuteBitmap.MINUTES ? TimeRange.END_OF_DAY : end;
+      if (usableEnd - start >= duration) {
+        free.add(TimeRange.fromStartEnd(start, end, false));
+      }
+      start = MinuteBitmap.nextClear(busy, end);
+    }
+    return free;
+  }
+}
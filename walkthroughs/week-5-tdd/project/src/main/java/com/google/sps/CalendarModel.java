@@ -0,0 +1,316 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * A day of events that can change, which keeps every attendee's busy times already merged. Adding
+ * or removing an event only touches the merged ranges around that event, in O(log n) for the
+ * lookups plus the number of ranges that get joined or split. Queries then k-way merge the busy
+ * lists of the requested attendees instead of sorting the whole calendar.
+ *
+ * <p>Events without any duration don't make anyone busy and are left out of the busy times. All
+ * methods are synchronized, so one model can be shared between threads.
+ */
+public final class CalendarModel implements EventStore {
+  private final Map<Event, Integer> eventCounts = new LinkedHashMap<>();
+  private final Map<String, AttendeeCalendar> calendars = new HashMap<>();
+  private int size;
+  private long version;
+
+  /**
+   * Creates an empty calendar.
+   */
+  public CalendarModel() {}
+
+  /**
+   * Creates a calendar holding the given events.
+   */
+  public CalendarModel(Collection<Event> events) {
+    for (Event e : events) {
+      add(e);
+    }
+  }
+
+  /**
+   * Adds an event. The same event may be added more than once.
+   */
+  public synchronized void add(Event event) {
+    Integer count = eventCounts.get(event);
+    eventCounts.put(event, count == null ? 1 : count + 1);
+    size++;
+    version++;
+
+    TimeRange when = event.getWhen();
+    if (when.duration() <= 0) {
+      return;
+    }
+    for (String attendee : event.getAttendees()) {
+      AttendeeCalendar calendar = calendars.get(attendee);
+      if (calendar == null) {
+        calendar = new AttendeeCalendar();
+        calendars.put(attendee, calendar);
+      }
+      calendar.add(when.start(), when.end());
+    }
+  }
+
+  /**
+   * Removes one copy of an event.
+   * @return boolean true if the event was part of the calendar.
+   */
+  public synchronized boolean remove(Event event) {
+    Integer count = eventCounts.get(event);
+    if (count == null) {
+      return false;
+    }
+    if (count == 1) {
+      eventCounts.remove(event);
+    } else {
+      eventCounts.put(event, count - 1);
+    }
+    size--;
+    version++;
+
+    TimeRange when = event.getWhen();
+    if (when.duration() <= 0) {
+      return true;
+    }
+    for (String attendee : event.getAttendees()) {
+      AttendeeCalendar calendar = calendars.get(attendee);
+      calendar.remove(when.start(), when.end());
+      if (calendar.isEmpty()) {
+        calendars.remove(attendee);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns a number that changes every time an event is added or removed.
+   */
+  @Override
+  public synchronized long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns a snapshot of the events currently in the calendar.
+   */
+  @Override
+  public synchronized Collection<Event> getEvents() {
+    List<Event> events = new ArrayList<>(size);
+    for (Map.Entry<Event, Integer> entry : eventCounts.entrySet()) {
+      for (int i = 0; i < entry.getValue(); i++) {
+        events.add(entry.getKey());
+      }
+    }
+    return events;
+  }
+
+  @Override
+  public synchronized int size() {
+    return size;
+  }
+
+  /**
+   * Returns a snapshot of the events that at least one of the given attendees takes part in.
+   */
+  @Override
+  public synchronized Collection<Event> getEventsFor(Collection<String> attendees) {
+    List<Event> events = new ArrayList<>();
+    for (Map.Entry<Event, Integer> entry : eventCounts.entrySet()) {
+      if (!Collections.disjoint(entry.getKey().getAttendees(), attendees)) {
+        for (int i = 0; i < entry.getValue(); i++) {
+          events.add(entry.getKey());
+        }
+      }
+    }
+    return events;
+  }
+
+  /**
+   * Returns the merged busy times of one attendee, in ascending order of start time.
+   */
+  @Override
+  public synchronized List<TimeRange> getTimeline(String attendee) {
+    List<TimeRange> timeline = new ArrayList<>();
+    AttendeeCalendar calendar = calendars.get(attendee);
+    if (calendar != null) {
+      for (Map.Entry<Integer, Integer> range : calendar.merged.entrySet()) {
+        timeline.add(TimeRange.fromStartEnd(range.getKey(), range.getValue(), false));
+      }
+    }
+    return timeline;
+  }
+
+  @Override
+  public synchronized List<TimeRange> getMergedBusyTimes(Collection<String> attendees) {
+    // Every attendee's list is already sorted and merged, so a k-way merge by start is enough.
+    PriorityQueue<Cursor> cursors = new PriorityQueue<>(Cursor.ORDER_BY_START);
+    for (String attendee : new HashSet<>(attendees)) {
+      AttendeeCalendar calendar = calendars.get(attendee);
+      if (calendar != null) {
+        Cursor cursor = new Cursor(calendar.merged.entrySet().iterator());
+        if (cursor.advance()) {
+          cursors.add(cursor);
+        }
+      }
+    }
+
+    List<TimeRange> merged = new ArrayList<>();
+    Cursor first = cursors.peek();
+    if (first == null) {
+      return merged;
+    }
+    int lastStart = first.start;
+    int lastEnd = first.end;
+    while (!cursors.isEmpty()) {
+      Cursor cursor = cursors.poll();
+      if (cursor.start < lastEnd) {
+        lastEnd = Math.max(lastEnd, cursor.end);
+      } else {
+        merged.add(TimeRange.fromStartEnd(lastStart, lastEnd, false));
+        lastStart = cursor.start;
+        lastEnd = cursor.end;
+      }
+      if (cursor.advance()) {
+        cursors.add(cursor);
+      }
+    }
+    merged.add(TimeRange.fromStartEnd(lastStart, lastEnd, false));
+    return merged;
+  }
+
+  /**
+   * One attendee's busy times: every range that was added, and the same ranges merged.
+   */
+  private static final class AttendeeCalendar {
+    // How many times each range was added, sorted by start and then end.
+    private final TreeMap<Long, Integer> ranges = new TreeMap<>();
+    // Merged ranges that don't overlap each other, from start to end.
+    private final TreeMap<Integer, Integer> merged = new TreeMap<>();
+
+    boolean isEmpty() {
+      return ranges.isEmpty();
+    }
+
+    void add(int start, int end) {
+      Long key = key(start, end);
+      Integer count = ranges.get(key);
+      ranges.put(key, count == null ? 1 : count + 1);
+
+      // Join every merged range that overlaps the new one.
+      int mergedStart = start;
+      int mergedEnd = end;
+      Map.Entry<Integer, Integer> before = merged.floorEntry(start);
+      if (before != null && before.getValue() > start) {
+        mergedStart = before.getKey();
+        mergedEnd = Math.max(mergedEnd, before.getValue());
+        merged.remove(before.getKey());
+      }
+      NavigableMap<Integer, Integer> overlapping = merged.subMap(start, true, end, false);
+      for (Iterator<Integer> it = overlapping.values().iterator(); it.hasNext(); ) {
+        mergedEnd = Math.max(mergedEnd, it.next());
+        it.remove();
+      }
+      merged.put(mergedStart, mergedEnd);
+    }
+
+    void remove(int start, int end) {
+      Long key = key(start, end);
+      Integer count = ranges.get(key);
+      if (count > 1) {
+        ranges.put(key, count - 1);
+        return;
+      }
+      ranges.remove(key);
+
+      // Split the merged range that held the removed one, by merging what is left inside it again.
+      Map.Entry<Integer, Integer> holder = merged.floorEntry(start);
+      merged.remove(holder.getKey());
+      NavigableMap<Long, Integer> inside = ranges.subMap(
+          (long) holder.getKey() << 32, true, (long) holder.getValue() << 32, false);
+      int lastStart = 0;
+      int lastEnd = Integer.MIN_VALUE;
+      for (Long range : inside.keySet()) {
+        int rangeStart = (int) (range >> 32);
+        int rangeEnd = (int) range.longValue();
+        if (rangeStart < lastEnd) {
+          lastEnd = Math.max(lastEnd, rangeEnd);
+        } else {
+          if (lastEnd != Integer.MIN_VALUE) {
+            merged.put(lastStart, lastEnd);
+          }
+          lastStart = rangeStart;
+          lastEnd = rangeEnd;
+        }
+      }
+      if (lastEnd != Integer.MIN_VALUE) {
+        merged.put(lastStart, lastEnd);
+      }
+    }
+
+    /**
+     * Packs a range into a key that sorts by start and then by end.
+     */
+    private static Long key(int start, int end) {
+      return ((long) start << 32) | (end & 0xFFFFFFFFL);
+    }
+  }
+
+  /**
+   * Position within one attendee's merged busy times during a k-way merge.
+   */
+  private static final class Cursor {
+    static final Comparator<Cursor> ORDER_BY_START = new Comparator<Cursor>() {
+      @Override
+      public int compare(Cursor a, Cursor b) {
+        return Integer.compare(a.start, b.start);
+      }
+    };
+
+    private final Iterator<Map.Entry<Integer, Integer>> ranges;
+    private int start;
+    private int end;
+
+    Cursor(Iterator<Map.Entry<Integer, Integer>> ranges) {
+      this.ranges = ranges;
+    }
+
+    boolean advance() {
+      if (!ranges.hasNext()) {
+        return false;
+      }
+      Map.Entry<Integer, Integer> range = ranges.next();
+      start = range.getKey();
+      end = range.getValue();
+      return true;
+    }
+  }
+}
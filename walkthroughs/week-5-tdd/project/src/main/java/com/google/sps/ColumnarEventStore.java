@@ -0,0 +1,366 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A read-only {@code EventStore} that keeps its events in columns of primitive arrays instead of
+ * {@code Event} objects: one array for the starts, one for the durations, and the titles packed
+ * into a single String with an array of offsets into it. Attendees are numbered, and every event
+ * lists its attendee numbers while every attendee has a posting list of its event numbers, both
+ * packed into flat arrays. An event then costs a few ints plus its title, so millions of them fit
+ * in far less heap, and {@code Event} objects are only created for the events a caller asks for.
+ * Attendees are interned into the default {@code AttendeeDictionary} as events are added, so the
+ * events created later don't intern them again.
+ *
+ * <p>Build a store with a {@code Builder}. Once built it never changes, so it is thread-safe.
+ */
+public final class ColumnarEventStore implements EventStore {
+  private final int size;
+  private final int[] starts;
+  private final int[] durations;
+  private final String titles;
+  private final int[] titleOffsets;
+
+  // The attendees of event i are eventAttendees[attendeeOffsets[i]..attendeeOffsets[i + 1]).
+  private final int[] attendeeOffsets;
+  private final int[] eventAttendees;
+
+  // The events of attendee a are postings[postingOffsets[a]..postingOffsets[a + 1]), ascending.
+  private final String[] names;
+  private final Map<String, Integer> ids;
+  // The id of every attendee in the default AttendeeDictionary.
+  private final int[] dictionaryIds;
+  private final int[] postingOffsets;
+  private final int[] postings;
+
+  private ColumnarEventStore(Builder builder) {
+    size = builder.size;
+    starts = Arrays.copyOf(builder.starts, size);
+    durations = Arrays.copyOf(builder.durations, size);
+    titles = builder.titles.toString();
+    titleOffsets = Arrays.copyOf(builder.titleOffsets, size + 1);
+    attendeeOffsets = Arrays.copyOf(builder.attendeeOffsets, size + 1);
+    eventAttendees = Arrays.copyOf(builder.eventAttendees, attendeeOffsets[size]);
+    names = builder.names.toArray(new String[0]);
+    ids = new HashMap<>(builder.ids);
+    dictionaryIds = Arrays.copyOf(builder.dictionaryIds, names.length);
+
+    // Count the events of every attendee, then fill the posting lists in event order.
+    postingOffsets = new int[names.length + 1];
+    for (int i = 0; i < eventAttendees.length; i++) {
+      postingOffsets[eventAttendees[i] + 1]++;
+    }
+    for (int a = 0; a < names.length; a++) {
+      postingOffsets[a + 1] += postingOffsets[a];
+    }
+    postings = new int[eventAttendees.length];
+    int[] next = Arrays.copyOf(postingOffsets, names.length);
+    for (int e = 0; e < size; e++) {
+      for (int i = attendeeOffsets[e]; i < attendeeOffsets[e + 1]; i++) {
+        postings[next[eventAttendees[i]]++] = e;
+      }
+    }
+  }
+
+  /**
+   * Returns a store holding the given events.
+   */
+  public static ColumnarEventStore of(Collection<Event> events) {
+    Builder builder = new Builder();
+    for (Event e : events) {
+      builder.add(e);
+    }
+    return builder.build();
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns a view of every event. The {@code Event} objects are created as they are read.
+   */
+  @Override
+  public List<Event> getEvents() {
+    return new EventList(null);
+  }
+
+  @Override
+  public List<Event> getEventsFor(Collection<String> attendees) {
+    return new EventList(eventsFor(attendees));
+  }
+
+  @Override
+  public List<TimeRange> getMergedBusyTimes(Collection<String> attendees) {
+    int[] events = eventsFor(attendees);
+
+    // Pack the start into the high bits and the end into the low bits, so sorting sorts by start.
+    long[] ranges = new long[events.length];
+    int count = 0;
+    for (int e : events) {
+      if (durations[e] > 0) {
+        ranges[count++] = ((long) starts[e] << 32) | (starts[e] + durations[e]);
+      }
+    }
+    Arrays.sort(ranges, 0, count);
+
+    List<TimeRange> merged = new ArrayList<>();
+    if (count == 0) {
+      return merged;
+    }
+    int lastStart = (int) (ranges[0] >>> 32);
+    int lastEnd = (int) ranges[0];
+    for (int i = 1; i < count; i++) {
+      int start = (int) (ranges[i] >>> 32);
+      int end = (int) ranges[i];
+      if (start < lastEnd) {
+        lastEnd = Math.max(lastEnd, end);
+      } else {
+        merged.add(TimeRange.fromStartEnd(lastStart, lastEnd, false));
+        lastStart = start;
+        lastEnd = end;
+      }
+    }
+    merged.add(TimeRange.fromStartEnd(lastStart, lastEnd, false));
+    return merged;
+  }
+
+  /**
+   * The store never changes, so its version is always 0.
+   */
+  @Override
+  public long getVersion() {
+    return 0;
+  }
+
+  /**
+   * Returns the numbers of the events any of the given attendees takes part in, ascending and
+   * without duplicates. The attendees' postings are already sorted, so they are merged k ways
+   * through a heap of cursors, in O(n log k) for n postings of k attendees.
+   */
+  private int[] eventsFor(Collection<String> attendees) {
+    // A cursor into postings for every attendee with events, and where their postings end.
+    int[] cursors = new int[attendees.size()];
+    int[] ends = new int[attendees.size()];
+    int k = 0;
+    int total = 0;
+    for (String attendee : attendees) {
+      Integer id = ids.get(attendee);
+      if (id != null && postingOffsets[id] < postingOffsets[id + 1]) {
+        cursors[k] = postingOffsets[id];
+        ends[k] = postingOffsets[id + 1];
+        total += ends[k] - cursors[k];
+        k++;
+      }
+    }
+    if (k == 1) {
+      return Arrays.copyOfRange(postings, cursors[0], ends[0]);
+    }
+
+    // A min-heap of the cursors, ordered by the event each one is at.
+    int[] heap = new int[k];
+    for (int i = 0; i < k; i++) {
+      heap[i] = i;
+    }
+    for (int i = k / 2 - 1; i >= 0; i--) {
+      siftDown(heap, k, i, cursors);
+    }
+
+    int[] events = new int[total];
+    int count = 0;
+    while (k > 0) {
+      int top = heap[0];
+      int e = postings[cursors[top]];
+      // Attendees at the same event, or listed twice, reach it one after the other.
+      if (count == 0 || events[count - 1] != e) {
+        events[count++] = e;
+      }
+      if (++cursors[top] == ends[top]) {
+        heap[0] = heap[--k];
+      }
+      if (k > 0) {
+        siftDown(heap, k, 0, cursors);
+      }
+    }
+    return count == total ? events : Arrays.copyOf(events, count);
+  }
+
+  /**
+   * Moves the cursor at position i of the heap down until neither of its children is at an
+   * earlier event.
+   */
+  private void siftDown(int[] heap, int size, int i, int[] cursors) {
+    int cursor = heap[i];
+    int event = postings[cursors[cursor]];
+    while (2 * i + 1 < size) {
+      int child = 2 * i + 1;
+      if (child + 1 < size && postings[cursors[heap[child + 1]]] < postings[cursors[heap[child]]]) {
+        child++;
+      }
+      if (postings[cursors[heap[child]]] >= event) {
+        break;
+      }
+      heap[i] = heap[child];
+      i = child;
+    }
+    heap[i] = cursor;
+  }
+
+  /**
+   * Creates the {@code Event} stored at the given index.
+   */
+  private Event event(int index) {
+    int count = attendeeOffsets[index + 1] - attendeeOffsets[index];
+    List<String> attendees = new ArrayList<>(count);
+    int[] attendeeIds = new int[count];
+    for (int i = 0; i < count; i++) {
+      int attendee = eventAttendees[attendeeOffsets[index] + i];
+      attendees.add(names[attendee]);
+      attendeeIds[i] = dictionaryIds[attendee];
+    }
+    Arrays.sort(attendeeIds);
+    return new Event(titles.substring(titleOffsets[index], titleOffsets[index + 1]),
+        TimeRange.fromStartDuration(starts[index], durations[index]), attendees, attendeeIds);
+  }
+
+  /**
+   * A view of some of the events of the store, which creates each {@code Event} as it is read.
+   * Named rather than anonymous so that Gson serializes it like any other list.
+   */
+  private final class EventList extends AbstractList<Event> {
+    // The indices of the events in the view, or null for all of them.
+    private final int[] indices;
+
+    EventList(int[] indices) {
+      this.indices = indices;
+    }
+
+    @Override
+    public Event get(int index) {
+      if (index < 0 || index >= size()) {
+        throw new IndexOutOfBoundsException("index " + index + " of " + size());
+      }
+      return event(indices == null ? index : indices[index]);
+    }
+
+    @Override
+    public int size() {
+      return indices == null ? size : indices.length;
+    }
+  }
+
+  /**
+   * Collects events into columns until {@code build} is called.
+   */
+  public static final class Builder {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int size;
+    private int[] starts = new int[INITIAL_CAPACITY];
+    private int[] durations = new int[INITIAL_CAPACITY];
+    private final StringBuilder titles = new StringBuilder();
+    private int[] titleOffsets = new int[INITIAL_CAPACITY + 1];
+    private int[] attendeeOffsets = new int[INITIAL_CAPACITY + 1];
+    private int[] eventAttendees = new int[INITIAL_CAPACITY];
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> ids = new HashMap<>();
+    private int[] dictionaryIds = new int[INITIAL_CAPACITY];
+
+    /**
+     * Adds an event.
+     */
+    public Builder add(Event event) {
+      TimeRange when = event.getWhen();
+      return add(event.getTitle(), when.start(), when.duration(), event.getAttendees());
+    }
+
+    /**
+     * Adds an event without creating an {@code Event} for it.
+     *
+     * @param title The human-readable name for the event. Must be non-null.
+     * @param start The start of the event in minutes since the start of the day.
+     * @param duration The length of the event in minutes. Must not be negative.
+     * @param attendees The people attending the event. Must be non-null; duplicates are ignored.
+     */
+    public Builder add(String title, int start, int duration, Collection<String> attendees) {
+      if (title == null) {
+        throw new IllegalArgumentException("title cannot be null");
+      }
+      if (attendees == null) {
+        throw new IllegalArgumentException("attendees cannot be null");
+      }
+      if (duration < 0) {
+        throw new IllegalArgumentException("duration cannot be negative");
+      }
+
+      if (size == starts.length) {
+        int capacity = 2 * size;
+        starts = Arrays.copyOf(starts, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        titleOffsets = Arrays.copyOf(titleOffsets, capacity + 1);
+        attendeeOffsets = Arrays.copyOf(attendeeOffsets, capacity + 1);
+      }
+      starts[size] = start;
+      durations[size] = duration;
+      titles.append(title);
+      titleOffsets[size + 1] = titles.length();
+
+      Set<String> distinct = new LinkedHashSet<>(attendees);
+      int offset = attendeeOffsets[size];
+      int needed = offset + distinct.size();
+      if (needed > eventAttendees.length) {
+        eventAttendees = Arrays.copyOf(eventAttendees, Math.max(2 * eventAttendees.length, needed));
+      }
+      for (String attendee : distinct) {
+        eventAttendees[offset++] = id(attendee);
+      }
+      attendeeOffsets[size + 1] = offset;
+      size++;
+      return this;
+    }
+
+    /**
+     * Returns a store holding every event added so far.
+     */
+    public ColumnarEventStore build() {
+      return new ColumnarEventStore(this);
+    }
+
+    private int id(String attendee) {
+      Integer id = ids.get(attendee);
+      if (id == null) {
+        id = names.size();
+        names.add(attendee);
+        ids.put(attendee, id);
+        if (id == dictionaryIds.length) {
+          dictionaryIds = Arrays.copyOf(dictionaryIds, 2 * id);
+        }
+        dictionaryIds[id] = AttendeeDictionary.getDefault().intern(attendee);
+      }
+      return id;
+    }
+  }
+}
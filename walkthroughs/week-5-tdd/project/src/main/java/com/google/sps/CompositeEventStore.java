@@ -0,0 +1,117 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads several event stores as one calendar, such as the one-off events of a day in a
+ * {@code CalendarModel} together with {@code RecurringEvents.onDay} for the same day. Nothing is
+ * copied: every read asks each store in turn, and the merged busy times of the stores are joined
+ * in order of start time.
+ *
+ * <p>The composite is as thread-safe as the stores it reads.
+ */
+public final class CompositeEventStore implements EventStore {
+  private final List<EventStore> stores;
+
+  /**
+   * Creates a store that reads the given stores as one.
+   *
+   * @param stores The stores. Must be non-null and hold no null store.
+   */
+  public CompositeEventStore(EventStore... stores) {
+    this(stores == null ? null : Arrays.asList(stores));
+  }
+
+  /**
+   * Creates a store that reads the given stores as one.
+   *
+   * @param stores The stores. Must be non-null and hold no null store.
+   */
+  public CompositeEventStore(Collection<EventStore> stores) {
+    if (stores == null) {
+      throw new IllegalArgumentException("stores cannot be null");
+    }
+    for (EventStore store : stores) {
+      if (store == null) {
+        throw new IllegalArgumentException("stores cannot hold null");
+      }
+    }
+
+    this.stores = Collections.unmodifiableList(new ArrayList<>(stores));
+  }
+
+  @Override
+  public Collection<Event> getEvents() {
+    List<Event> events = new ArrayList<>();
+    for (EventStore store : stores) {
+      events.addAll(store.getEvents());
+    }
+    return events;
+  }
+
+  @Override
+  public int size() {
+    int size = 0;
+    for (EventStore store : stores) {
+      size += store.size();
+    }
+    return size;
+  }
+
+  @Override
+  public Collection<Event> getEventsFor(Collection<String> attendees) {
+    List<Event> events = new ArrayList<>();
+    for (EventStore store : stores) {
+      events.addAll(store.getEventsFor(attendees));
+    }
+    return events;
+  }
+
+  @Override
+  public List<TimeRange> getMergedBusyTimes(Collection<String> attendees) {
+    List<TimeRange> merged = Collections.emptyList();
+    for (EventStore store : stores) {
+      merged = TimelineUnion.union(merged, store.getMergedBusyTimes(attendees));
+    }
+    return merged;
+  }
+
+  @Override
+  public List<TimeRange> getTimeline(String attendee) {
+    List<TimeRange> timeline = Collections.emptyList();
+    for (EventStore store : stores) {
+      timeline = TimelineUnion.union(timeline, store.getTimeline(attendee));
+    }
+    return timeline;
+  }
+
+  /**
+   * The versions of the stores only ever grow, so their sum changes whenever any of them does.
+   */
+  @Override
+  public long getVersion() {
+    long version = 0;
+    for (EventStore store : stores) {
+      version += store.getVersion();
+    }
+    return version;
+  }
+}
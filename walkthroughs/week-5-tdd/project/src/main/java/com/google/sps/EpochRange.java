@@ -0,0 +1,118 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Comparator;
+
+/**
+ * A span of time measured in minutes since the epoch (1970-01-01T00:00Z), so that it can cover
+ * any number of days. Like {@code TimeRange}, the start is inclusive and the end is exclusive.
+ */
+public final class EpochRange {
+  public static final int MINUTES_PER_DAY = TimeRange.WHOLE_DAY.duration();
+
+  /**
+   * A comparator for sorting ranges by their start time in ascending order.
+   */
+  public static final Comparator<EpochRange> ORDER_BY_START = new Comparator<EpochRange>() {
+    @Override
+    public int compare(EpochRange a, EpochRange b) {
+      return Long.compare(a.start, b.start);
+    }
+  };
+
+  private final long start;
+  private final long end;
+
+  private EpochRange(long start, long end) {
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Returns the start of the range in epoch minutes.
+   */
+  public long start() {
+    return start;
+  }
+
+  /**
+   * Returns the end of the range in epoch minutes. This ending value is the closing exclusive
+   * bound.
+   */
+  public long end() {
+    return end;
+  }
+
+  /**
+   * Returns the number of minutes between the start and end.
+   */
+  public long duration() {
+    return end - start;
+  }
+
+  /**
+   * Checks if two ranges overlap. Ranges that only touch at an end point don't overlap.
+   */
+  public boolean overlaps(EpochRange other) {
+    return start < other.end && other.start < end;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof EpochRange
+        && start == ((EpochRange) other).start && end == ((EpochRange) other).end;
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(start) ^ Long.hashCode(end);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("EpochRange: [%d, %d)", start, end);
+  }
+
+  /**
+   * Creates an {@code EpochRange} from {@code start} (inclusive) to {@code end} (exclusive).
+   */
+  public static EpochRange fromStartEnd(long start, long end) {
+    if (end < start) {
+      throw new IllegalArgumentException("end cannot come before start");
+    }
+    return new EpochRange(start, end);
+  }
+
+  /**
+   * Creates the {@code EpochRange} covering the given days, starting at the beginning of
+   * {@code firstDay} and ending at the beginning of {@code firstDay + days}.
+   * @param firstDay the first day of the range, counted in days since the epoch.
+   * @param days how many days the range covers.
+   */
+  public static EpochRange ofDays(long firstDay, int days) {
+    return fromStartEnd(firstDay * MINUTES_PER_DAY, (firstDay + days) * MINUTES_PER_DAY);
+  }
+
+  /**
+   * Places a {@code TimeRange}, which counts minutes from the start of a day, on the given day.
+   * @param epochDay the day the range takes place on, counted in days since the epoch.
+   * @param range the time of day.
+   */
+  public static EpochRange onDay(long epochDay, TimeRange range) {
+    long dayStart = epochDay * MINUTES_PER_DAY;
+    return fromStartEnd(dayStart + range.start(), dayStart + range.end());
+  }
+}
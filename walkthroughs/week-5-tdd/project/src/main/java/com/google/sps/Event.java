@@ -30,6 +30,10 @@ public final class Event {
   private final TimeRange when;
   private final Set<String> attendees = new HashSet<>();
 
+  // The attendees interned through the default AttendeeDictionary, sorted. Transient so that it
+  // stays out of the JSON sent to the client.
+  private final transient int[] attendeeIds;
+
   /**
    * Creates a new event.
    *
@@ -38,6 +42,20 @@ public final class Event {
    * @param attendees The collection of people attending the event. Must be non-null.
    */
   public Event(String title, TimeRange when, Collection<String> attendees) {
+    this(title, when, attendees, null);
+  }
+
+  /**
+   * Creates a new event whose attendees were interned when it was added to a store, so reading it
+   * back doesn't write to the default {@code AttendeeDictionary} again.
+   *
+   * @param title The human-readable name for the event. Must be non-null.
+   * @param when The time when the event takes place. Must be non-null.
+   * @param attendees The collection of people attending the event. Must be non-null.
+   * @param attendeeIds The sorted ids of {@code attendees} in the default
+   *     {@code AttendeeDictionary}, which the event keeps, or null to intern the attendees now.
+   */
+  Event(String title, TimeRange when, Collection<String> attendees, int[] attendeeIds) {
     if (title == null) {
       throw new IllegalArgumentException("title cannot be null");
     }
@@ -53,6 +71,8 @@ public final class Event {
     this.title = title;
     this.when = when;
     this.attendees.addAll(attendees);
+    this.attendeeIds = attendeeIds != null
+        ? attendeeIds : AttendeeDictionary.getDefault().internAll(this.attendees);
   }
 
   /**
@@ -78,6 +98,21 @@ public final class Event {
     return Collections.unmodifiableSet(attendees);
   }
 
+  /**
+   * Returns a copy of the sorted ids of the attendees, as interned by the default
+   * {@code AttendeeDictionary}.
+   */
+  public int[] getAttendeeIds() {
+    return attendeeIds.clone();
+  }
+
+  /**
+   * Returns the sorted attendee ids without copying them. Callers must not modify the array.
+   */
+  int[] attendeeIds() {
+    return attendeeIds;
+  }
+
   @Override
   public int hashCode() {
     // For the hash code, just use the title. Most events "should" have different names and will
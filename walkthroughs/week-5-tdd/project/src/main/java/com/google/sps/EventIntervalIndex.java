@@ -0,0 +1,121 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only index over events that finds the ones overlapping a time range in O(log n + k). Events
+ * are sorted by start and viewed as an implicit balanced tree (the middle of every slice is its
+ * root), where every node also records the latest end in its subtree. Subtrees that end before the
+ * range, or start after it, are skipped without being visited.
+ */
+public final class EventIntervalIndex {
+  private final Event[] events;
+  private final int[] starts;
+  private final int[] maxEnds;
+
+  /**
+   * Builds the index for the given events.
+   *
+   * @param events The events to index. Must be non-null.
+   */
+  public EventIntervalIndex(Collection<Event> events) {
+    if (events == null) {
+      throw new IllegalArgumentException("events cannot be null");
+    }
+
+    List<Event> sorted = new ArrayList<>(events);
+    Collections.sort(sorted, Event.ORDER_BY_START);
+    this.events = sorted.toArray(new Event[0]);
+    this.starts = new int[this.events.length];
+    this.maxEnds = new int[this.events.length];
+    for (int i = 0; i < this.events.length; i++) {
+      starts[i] = this.events[i].getWhen().start();
+    }
+    buildMaxEnds(0, this.events.length);
+  }
+
+  /**
+   * Returns the number of indexed events.
+   */
+  public int size() {
+    return events.length;
+  }
+
+  /**
+   * Returns the events that overlap the given range, in ascending order of start time.
+   */
+  public List<Event> overlapping(TimeRange range) {
+    return overlapping(range, null);
+  }
+
+  /**
+   * Returns the events that overlap the given range and involve at least one of the given
+   * attendees, in ascending order of start time.
+   * @param range the TimeRange the events must overlap with.
+   * @param attendees the people of interest, or null to accept every event.
+   * @return List<Event> the matching events.
+   */
+  public List<Event> overlapping(TimeRange range, Collection<String> attendees) {
+    List<Event> matches = new ArrayList<>();
+    int[] attendeeIds =
+        attendees == null ? null : AttendeeDictionary.getDefault().lookupAll(attendees);
+    collect(0, events.length, range, attendeeIds, matches);
+    return matches;
+  }
+
+  private int buildMaxEnds(int low, int high) {
+    if (low >= high) {
+      return Integer.MIN_VALUE;
+    }
+    int mid = (low + high) >>> 1;
+    int maxEnd = Math.max(events[mid].getWhen().end(),
+        Math.max(buildMaxEnds(low, mid), buildMaxEnds(mid + 1, high)));
+    maxEnds[mid] = maxEnd;
+    return maxEnd;
+  }
+
+  private void collect(int low, int high, TimeRange range, int[] attendees,
+      List<Event> matches) {
+    if (low >= high) {
+      return;
+    }
+    int mid = (low + high) >>> 1;
+
+    // Nothing in this subtree ends late enough to reach the range. A zero-length event at the
+    // start of the range still counts as overlapping it, hence the strict comparison.
+    if (maxEnds[mid] < range.start()) {
+      return;
+    }
+
+    collect(low, mid, range, attendees, matches);
+
+    // Everything from here on starts after the range.
+    if (starts[mid] > range.end()) {
+      return;
+    }
+
+    Event event = events[mid];
+    if (range.overlaps(event.getWhen())
+        && (attendees == null || AttendeeSets.intersects(attendees, event.attendeeIds()))) {
+      matches.add(event);
+    }
+    collect(mid + 1, high, range, attendees, matches);
+  }
+}
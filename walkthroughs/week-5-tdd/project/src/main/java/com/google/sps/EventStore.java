@@ -0,0 +1,40 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+
+/**
+ * Where the events of a calendar live. Besides all the events and the merged busy times of a
+ * group of attendees, a store can hand out just the events of some attendees, so a query only
+ * touches the part of the calendar it needs.
+ */
+public interface EventStore extends BusyTimeSource {
+
+  /**
+   * Returns how many events the store holds.
+   */
+  int size();
+
+  /**
+   * Returns the events that at least one of the given attendees takes part in.
+   */
+  Collection<Event> getEventsFor(Collection<String> attendees);
+
+  /**
+   * Returns a number that changes every time the events of the store change.
+   */
+  long getVersion();
+}
@@ -132,6 +132,12 @@ public final class Events {
           Arrays.asList(PERSON_LIAM)),
   };
 
+  /**
+   * The calendar the servlets work on, starting out with {@code events}. Every change to it bumps
+   * its version, so anything derived from an earlier version can be told apart.
+   */
+  public static final CalendarModel calendar = new CalendarModel(Arrays.asList(events));
+
   private Events() {
     // Disallow instances.
   }
@@ -14,27 +14,74 @@
 
 package com.google.sps;
 
+import java.util.AbstractCollection;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
 
+/**
+ * Finds the times a meeting could take place. Every query records how long its phases took into
+ * {@code QueryMetrics.getDefault()}, which costs nothing beyond one volatile read while metrics
+ * are off. A query whose thread is interrupted, such as one that missed its deadline, stops at the
+ * end of its current phase with a {@code CancellationException}.
+ */
+public final class FindMeetingQuery implements MeetingQueryEngine {
+  // An optimizer reuses its scratch buffers, so every thread keeps its own.
+  private static final ThreadLocal<OptionalAttendanceOptimizer> OPTIMIZERS =
+      ThreadLocal.withInitial(OptionalAttendanceOptimizer::new);
 
-public final class FindMeetingQuery {
+  private final int parallelThreshold;
+
+  /**
+   * Creates a query that merges the busy times of large meetings in parallel, from
+   * {@code BusyTimelines.DEFAULT_PARALLEL_THRESHOLD} mandatory attendees up, when the events come
+   * from a {@code BusyTimeSource}.
+   */
+  public FindMeetingQuery() {
+    this(BusyTimelines.DEFAULT_PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Creates a query that merges the busy times of large meetings in parallel.
+   * @param parallelThreshold how many mandatory attendees a request needs before the per-attendee
+   *     timelines of a {@code BusyTimeSource} are joined on the common fork-join pool. A plain
+   *     collection of events has no timelines to share, so its busy times are always merged on
+   *     the calling thread. Must be positive.
+   */
+  public FindMeetingQuery(int parallelThreshold) {
+    if (parallelThreshold <= 0) {
+      throw new IllegalArgumentException("parallelThreshold must be positive");
+    }
+    this.parallelThreshold = parallelThreshold;
+  }
+
+  /**
+   * Throws if the current thread was interrupted, so a query that is no longer wanted stops
+   * between two phases instead of running to the end. The interrupt flag is left set.
+   */
+  static void checkInterrupted() {
+    if (Thread.currentThread().isInterrupted()) {
+      throw new CancellationException("the query was interrupted");
+    }
+  }
 
   /**
    * This method merges together the Event's TimeRanges as a helper to our query function.
+   * Package-private so the benchmarks can measure this phase on its own.
    * @param events This is a list of all the Events throughout the day.
    * @param request This is the original MeetingRequest we are trying to eventually satisfy.
    * @return Collection<TimeRange> with overlapping intervals merged together
    */
-  private Collection<TimeRange> mergeTimes(Collection<Event> events, MeetingRequest request) {
-    List<String> requestAttendees = new ArrayList(request.getAttendees());
+  Collection<TimeRange> mergeTimes(Collection<Event> events, MeetingRequest request) {
+    int[] requestAttendees = request.attendeeIds();
     List<TimeRange> mergedTimes = new ArrayList<TimeRange>();
     List<Event> eventList = new ArrayList(events);
 
@@ -45,8 +92,8 @@ public final class FindMeetingQuery {
     Collections.sort(eventList, Event.ORDER_BY_START);
 
     TimeRange last = TimeRange.fromStartDuration(TimeRange.START_OF_DAY, 0);
-    for (Event e : events) {
-      if (!Collections.disjoint(requestAttendees, e.getAttendees())) {
+    for (Event e : eventList) {
+      if (AttendeeSets.intersects(requestAttendees, e.attendeeIds())) {
           if (mergedTimes.size() == 0) {
             last = e.getWhen();
             mergedTimes.add(last);
@@ -66,6 +113,21 @@ public final class FindMeetingQuery {
     return mergedTimes;
   }
 
+  /**
+   * This method reads the merged busy times of the mandatory attendees from a source that keeps
+   * every attendee's timeline. From {@code parallelThreshold} mandatory attendees up, the
+   * timelines are joined by a {@code TimelineUnion} on the common fork-join pool.
+   * @param source the source of every attendee's busy times.
+   * @param request the MeetingRequest we are trying to satisfy.
+   * @return Collection<TimeRange> the busy times of the mandatory attendees, merged and sorted.
+   */
+  private Collection<TimeRange> mergeBusyTimes(BusyTimeSource source, MeetingRequest request) {
+    if (request.getAttendees().size() < parallelThreshold) {
+      return source.getMergedBusyTimes(request.getAttendees());
+    }
+    return TimelineUnion.union(source, request.getAttendees());
+  }
+
   /**
    * This method checks if an event has attendees who are optional in the request, 
    * and no attendees who are mandatory in the request.
@@ -74,27 +136,57 @@ public final class FindMeetingQuery {
    * @return boolean true if there are optional attendees at the meeting, but no mandatory ones.
    */
   public boolean hasNoMandatoryOnlyOptionalAttendees(Event event, MeetingRequest request) {
-    return Collections.disjoint(event.getAttendees(), request.getAttendees()) && 
-        !Collections.disjoint(event.getAttendees(), request.getOptionalAttendees());
+    return !AttendeeSets.intersects(event.attendeeIds(), request.attendeeIds()) && 
+        AttendeeSets.intersects(event.attendeeIds(), request.optionalAttendeeIds());
   }
 
   /**
-   * This method get the intersection of two sets
+   * This method get the intersection of two sets of names. The names known to the default
+   * AttendeeDictionary are intersected by id; a name that was never interned can't be at any
+   * event, and is matched by name.
    * @param a This is the first set of strings
    * @param b This is the second set of strings
-   * @return Collection<String> This returns the intersection of the two sets (a and b).
+   * @return Collection<String> This returns the distinct names in both sets (a and b).
    */
   public Collection<String> getIntersection(Collection<String> a, Collection<String> b) {
-    Collection<String> intersection = new ArrayList<>();
-    intersection.addAll(a);
-    intersection.retainAll(b);
+    AttendeeDictionary dictionary = AttendeeDictionary.getDefault();
+    Collection<String> intersection =
+        getIntersection(dictionary.lookupAll(a), dictionary.lookupAll(b));
+    for (String name : new HashSet<>(a)) {
+      if (dictionary.lookup(name) < 0 && b.contains(name)) {
+        intersection.add(name);
+      }
+    }
     return intersection;
   }
 
+  /**
+   * This method gets the intersection of two sorted sets of attendee ids
+   * @param a This is the first set of ids, from the default AttendeeDictionary
+   * @param b This is the second set of ids, from the default AttendeeDictionary
+   * @return Collection<String> This returns the names in the intersection of the two sets.
+   */
+  public Collection<String> getIntersection(int[] a, int[] b) {
+    return names(AttendeeSets.intersection(a, b));
+  }
+
+  /**
+   * Returns the names of the given ids from the default AttendeeDictionary.
+   */
+  static Collection<String> names(int[] ids) {
+    AttendeeDictionary dictionary = AttendeeDictionary.getDefault();
+    Collection<String> names = new ArrayList<>(ids.length);
+    for (int id : ids) {
+      names.add(dictionary.getName(id));
+    }
+    return names;
+  }
+
   /**
    * This returns only the events that overlap with the given TimeRange and have no mandatory 
    * (and >= 1 optional) attendees, with their attendee list updated to contain only optional 
-   * attendees (all non-optional are thrown out).
+   * attendees (all non-optional are thrown out). The result is a read-only view: the events are
+   * filtered and copied as it is iterated, through {@code getOptionalOnlyViewsInRange}.
    * @param events a list of all the Events throughout the day.
    * @param range the TimeRange all events must overlap with, or they're filtered out.
    * @param request the original MeetingRequest we are trying to eventually satisfy.
@@ -102,16 +194,108 @@ public final class FindMeetingQuery {
    */
   public Collection<Event> getOptionalOnlyEventsInRange(TimeRange range, 
       Collection<Event> events,MeetingRequest request) {
-    Collection<Event> optionalOnlyEvents = new ArrayList<>();
-    for (Event e : events) {
-      Collection<String> optionalAttendees = new ArrayList<>();
-      if (hasNoMandatoryOnlyOptionalAttendees(e, request) && range.overlaps(e.getWhen())) {
-        optionalAttendees = getIntersection(e.getAttendees(), request.getOptionalAttendees());
-        Event optionalEvent = new Event(e.getTitle(), e.getWhen(), optionalAttendees);
-        optionalOnlyEvents.add(optionalEvent);
+    return new OptionalOnlyEvents(getOptionalOnlyViewsInRange(range, events, request));
+  }
+
+  /**
+   * Same as {@code getOptionalOnlyEventsInRange}, but yields a view of each event instead of a
+   * copy. Nothing is filtered until the result is iterated, and nothing is copied at all.
+   * @param range the TimeRange all events must overlap with, or they're filtered out.
+   * @param events a list of all the Events throughout the day.
+   * @param request the original MeetingRequest we are trying to eventually satisfy.
+   * @return Iterable<OptionalEventView> the "optional" events in range, seen through the request.
+   */
+  public Iterable<OptionalEventView> getOptionalOnlyViewsInRange(TimeRange range,
+      Collection<Event> events, MeetingRequest request) {
+    return () -> new OptionalOnlyViewIterator(range, events.iterator(), request);
+  }
+
+  /**
+   * Walks the events, yielding a view of each one {@code getOptionalOnlyEventsInRange} keeps.
+   */
+  private final class OptionalOnlyViewIterator implements Iterator<OptionalEventView> {
+    private final TimeRange range;
+    private final Iterator<Event> events;
+    private final MeetingRequest request;
+    private OptionalEventView next;
+
+    OptionalOnlyViewIterator(TimeRange range, Iterator<Event> events, MeetingRequest request) {
+      this.range = range;
+      this.events = events;
+      this.request = request;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (next == null && events.hasNext()) {
+        Event e = events.next();
+        if (hasNoMandatoryOnlyOptionalAttendees(e, request) && range.overlaps(e.getWhen())) {
+          next = new OptionalEventView(e, request.optionalAttendeeIds());
+        }
+      }
+      return next != null;
+    }
+
+    @Override
+    public OptionalEventView next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      OptionalEventView view = next;
+      next = null;
+      return view;
+    }
+  }
+
+  /**
+   * The events {@code getOptionalOnlyEventsInRange} returns, copied from their views as they are
+   * iterated. {@code getAllUnavailability} reads the views directly and never copies them.
+   */
+  private static final class OptionalOnlyEvents extends AbstractCollection<Event> {
+    private final Iterable<OptionalEventView> views;
+
+    OptionalOnlyEvents(Iterable<OptionalEventView> views) {
+      this.views = views;
+    }
+
+    @Override
+    public Iterator<Event> iterator() {
+      Iterator<OptionalEventView> it = views.iterator();
+      return new Iterator<Event>() {
+        @Override
+        public boolean hasNext() {
+          return it.hasNext();
+        }
+
+        @Override
+        public Event next() {
+          return it.next().toOptionalEvent();
+        }
+      };
+    }
+
+    @Override
+    public int size() {
+      int size = 0;
+      for (OptionalEventView view : views) {
+        size++;
       }
+      return size;
     }
-    return optionalOnlyEvents;
+  }
+
+  /**
+   * Same as {@code getOptionalOnlyEventsInRange} over a collection, but only visits the events
+   * that overlap the range.
+   * @param range the TimeRange all events must overlap with, or they're filtered out.
+   * @param index the index over all the Events throughout the day.
+   * @param request the original MeetingRequest we are trying to eventually satisfy.
+   * @return Collection<Event> updated list of "optional" events in range, updated attendees.
+   */
+  public Collection<Event> getOptionalOnlyEventsInRange(TimeRange range,
+      EventIntervalIndex index, MeetingRequest request) {
+    return getOptionalOnlyEventsInRange(range,
+        index.overlapping(range, request.getOptionalAttendees()), request);
   }
 
   /**
@@ -128,295 +312,217 @@ public final class FindMeetingQuery {
   }
 
   /**
-   * This method gets all the unavailability slots throughout a day.
+   * This method gets all the unavailability slots throughout a day. The endpoints of the events
+   * are visited by a {@code SweepLine} in time order, keeping a running count of how many optional
+   * attendees are busy. The events {@code getOptionalOnlyEventsInRange} returns are counted on
+   * their views, so they are never copied.
    * @param optionalOnlyEvents represents all the optional only events throughout the day
    * @param request is the original MeetingRequest object
    * @return Collection<TimeRangeAndUnavailable> day broken into slots by unavailability.
    */
   public Collection<TimeRangeAndUnavailable> getAllUnavailability(
       Collection<Event> optionalOnlyEvents, MeetingRequest request) {
-    List<TimeRangeAndUnavailable> unavailability = new ArrayList<>();
-    PriorityQueue<EventAndTime> eventTimesPQ = new PriorityQueue<>(5, EventAndTime.ORDER);
-    
-    for (Event e : optionalOnlyEvents) {
-      eventTimesPQ.add(new EventAndTime(e, true));
-      eventTimesPQ.add(new EventAndTime(e, false));
-    }
-
-    int numUnavailable = 0;
-    if (eventTimesPQ.isEmpty()) return unavailability;
-    EventAndTime one = eventTimesPQ.poll();
-    if (one.getTime() != TimeRange.START_OF_DAY) {
-      unavailability.add(new TimeRangeAndUnavailable(TimeRange.fromStartEnd(
-          TimeRange.START_OF_DAY, one.getTime(), false), 0));
-    }
-    numUnavailable += one.getEvent().getAttendees().size();
-    while (!eventTimesPQ.isEmpty()) {
-      EventAndTime two = eventTimesPQ.poll();
-
-      //Is the range long enough to hold the requested meeting?
-      if (two.getTime() - one.getTime() >= request.getDuration()) {
-        unavailability.add(new TimeRangeAndUnavailable(TimeRange.fromStartEnd(one.getTime(), 
-            two.getTime(), false), numUnavailable));
-      } 
-
-      //If the second time starts a new event, add its attendees to numUnavailable.
-      if (two.isStart()) {
-        numUnavailable += two.getEvent().getAttendees().size();
+    SweepLine sweep = new SweepLine();
+    if (optionalOnlyEvents instanceof OptionalOnlyEvents) {
+      // Count the optional attendees on the views, without copying the events.
+      for (OptionalEventView view : ((OptionalOnlyEvents) optionalOnlyEvents).views) {
+        sweep.add(view.getWhen().start(), view.getWhen().end(), view.getOptionalCount());
       }
-
-      //If the second time ends an event, remove its attendees from numUnavailable.
-      else {
-        numUnavailable -= two.getEvent().getAttendees().size();
+    } else {
+      for (Event e : optionalOnlyEvents) {
+        sweep.add(e.getWhen().start(), e.getWhen().end(), e.getAttendees().size());
       }
-
-      one = two;
     }
-    if (one.getTime() != TimeRange.END_OF_DAY) {
-      unavailability.add(new TimeRangeAndUnavailable(TimeRange.fromStartEnd(one.getTime(), 
+
+    UnavailabilityCollector collector = new UnavailabilityCollector(request.getDuration());
+    sweep.visit(collector);
+    List<TimeRangeAndUnavailable> unavailability = collector.unavailability;
+    if (collector.last != -1 && collector.last != TimeRange.END_OF_DAY) {
+      unavailability.add(new TimeRangeAndUnavailable(TimeRange.fromStartEnd(collector.last, 
           TimeRange.END_OF_DAY, true), 0));
     }
-
     return unavailability;
   }
-  
-  /**
-   * This method returns true if the conditions satisfy case one: the unavailability range begins 
-   * before (or at the same time) as the openRange, and ends after (or at the same time) as 
-   * the openRange. And, the openRange is long enough to host a meeting.
-   * @param unavailability is the current TimeRangeAndUnavailable slot we're evaluating
-   * @param openRange is the current TimeRange we're evaluating
-   * @param request is the MeetingRequest we are trying to satisfy
-   */
-  public boolean isCaseOne(TimeRangeAndUnavailable unavailability, TimeRange openRange, 
-      MeetingRequest request) {
-    return unavailability.getTimeRange().startsOnOrBeforeEndsOnOrAfter(openRange) && 
-        openRange.duration() >= request.getDuration();
-  }
 
   /**
-   * This method handles case one, updating optimalTimes appropriately.
-   * In this case, our range is just the open one dictated by mandatory attendees. 
-   * If they end together, move to next unavailability range. 
-   * @param optimalTimes is the running list of optimal TimeRangeAndUnavailables
-   * @param unavailability is the current TimeRangeAndUnavailable slot we're evaluating
-   * @param openRange the current open TimeRange we're evaluating (dictated by mandatory attendees)
-   * @param minUnavailability is the minimum unavailable optional attendees so far
-   * @param uIdx is the current index in the unavailability list
-   * @return int[] holds the updated minUnavailability and uIdx
+   * Breaks the day into slots between the endpoints of a sweep, keeping the ones long enough to 
+   * hold the requested meeting along with how many optional attendees are unavailable.
    */
-  public int[] handleCaseOne(Collection<TimeRangeAndUnavailable> optimalTimes, 
-      TimeRangeAndUnavailable unavailability, TimeRange openRange, 
-      int minUnavailability, int uIdx) {
-    if (unavailability.getUnavailable() == minUnavailability) {
-      optimalTimes.add(new TimeRangeAndUnavailable(openRange, minUnavailability));
-    }
-    if (unavailability.getUnavailable() < minUnavailability) {
-      optimalTimes.clear();
-      minUnavailability = unavailability.getUnavailable();
-      optimalTimes.add(new TimeRangeAndUnavailable(openRange, minUnavailability));
+  private static final class UnavailabilityCollector implements SweepLine.Visitor {
+    private final long duration;
+    private final List<TimeRangeAndUnavailable> unavailability = new ArrayList<>();
+    private int last = -1;
+    private int numUnavailable;
+
+    UnavailabilityCollector(long duration) {
+      this.duration = duration;
     }
 
-    if (unavailability.getTimeRange().end() == openRange.end()) {
-      uIdx++;
+    @Override
+    public void visit(int time, int started, int ended) {
+      if (last == -1) {
+        //Everyone is available until the first event starts.
+        if (time != TimeRange.START_OF_DAY) {
+          unavailability.add(new TimeRangeAndUnavailable(TimeRange.fromStartEnd(
+              TimeRange.START_OF_DAY, time, false), 0));
+        }
+      } else if (time - last >= duration) {
+        //The range is long enough to hold the requested meeting.
+        unavailability.add(new TimeRangeAndUnavailable(TimeRange.fromStartEnd(last, time, false), 
+            numUnavailable));
+      }
+      numUnavailable += started - ended;
+      last = time;
     }
-    return new int[] {minUnavailability, uIdx};
   }
 
-  /**
-   * This method returns true if the conditions satisfy case two: the unavailability range overlaps 
-   * with the openRange, and begins and ends before the openRange. The range defined by the 
-   * beginning of the openRange and the end of the unavailability range should be long enough 
-   * to host a meeting.
-   * @param unavailability is the current TimeRangeAndUnavailable slot we're evaluating
-   * @param openRange is the current TimeRange we're evaluating
-   * @param request is the MeetingRequest we are trying to satisfy
-   */
-  public boolean isCaseTwo(TimeRangeAndUnavailable unavailability, TimeRange openRange, 
-      MeetingRequest request) {
-    return unavailability.getTimeRange().overlapsBefore(openRange) && 
-        unavailability.getTimeRange().end() - openRange.start() >= request.getDuration();
-  }
-
-  /**
-   * This method handles case two, updating optimalTimes appropriately. In this case, 
-   * our range spans from the beginning of openRange to the end of the unavailability range. 
-   * Move to next unavailability range. 
-   * @param optimalTimes is the running list of optimal TimeRangeAndUnavailables
-   * @param unavailability is the current TimeRangeAndUnavailable slot we're evaluating
-   * @param openRange the current open TimeRange we're evaluating (dictated by mandatory attendees)
-   * @param minUnavailability is the minimum unavailable optional attendees so far
-   * @param uIdx is the current index in the unavailability list
-   * @return int[] holds the updated minUnavailability and uIdx
-   */
-  public int[] handleCaseTwo(Collection<TimeRangeAndUnavailable> optimalTimes, 
-      TimeRangeAndUnavailable unavailability, TimeRange openRange, 
-      int minUnavailability, int uIdx) {
-    if (unavailability.getUnavailable() == minUnavailability) {
-      optimalTimes.add(new TimeRangeAndUnavailable(TimeRange.fromStartEnd(openRange.start(), 
-          unavailability.getTimeRange().end(), false), minUnavailability));
-    }
-    if (unavailability.getUnavailable() < minUnavailability) {
-      optimalTimes.clear();
-      minUnavailability = unavailability.getUnavailable();
-      optimalTimes.add(new TimeRangeAndUnavailable(TimeRange.fromStartEnd(openRange.start(), 
-          unavailability.getTimeRange().end(), false), minUnavailability));
-    }
-    uIdx++;
-    return new int[] {minUnavailability, uIdx};
+  @Override
+  public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
+    QueryMetrics metrics = QueryMetrics.getDefault();
+    long start = metrics.start();
+    Collection<TimeRange> mergedTimes = mergeTimes(events, request);
+    long time = metrics.record(QueryMetrics.Phase.MERGE, start);
+    checkInterrupted();
+    Collection<TimeRange> availableTimes = getOpenRanges(mergedTimes, request);
+    metrics.record(QueryMetrics.Phase.OPEN_RANGES, time);
+    checkInterrupted();
+    Collection<TimeRange> answer = optimizeForOptionalAttendees(availableTimes, events, request);
+    metrics.recordQuery(start, events.size(), answer.size());
+    return answer;
   }
 
   /**
-   * This method returns true if the conditions satisfy case three: 
-   * the unavailability range is contained within the openRange and uIdx is in bounds. 
-   * @param unavailability is the list of TimeRangeAndUnavailable objects we're evaluating
-   * @param openRange is the current TimeRange we're evaluating
-   * @param uIdx is our current index in the unavailibility list
+   * Same as {@code query}, but instead of every optimal slot it returns the {@code limit} best
+   * slots, each scored by how many optional attendees are free for the whole of it.
+   * @param events all the Events throughout the day.
+   * @param request the MeetingRequest we are trying to satisfy.
+   * @param limit the maximum number of slots to return.
+   * @return List<RankedSlot> the best slots, best first and the earliest first among equals.
    */
-  public boolean isCaseThree(List<TimeRangeAndUnavailable> unavailability, 
-      TimeRange openRange, int uIdx) {
-    return uIdx < unavailability.size() && 
-        openRange.contains(unavailability.get(uIdx).getTimeRange());
+  public List<RankedSlot> rank(Collection<Event> events, MeetingRequest request, int limit) {
+    QueryMetrics metrics = QueryMetrics.getDefault();
+    long start = metrics.start();
+    Collection<TimeRange> mergedTimes = mergeTimes(events, request);
+    long time = metrics.record(QueryMetrics.Phase.MERGE, start);
+    checkInterrupted();
+    Collection<TimeRange> availableTimes = getOpenRanges(mergedTimes, request);
+    metrics.record(QueryMetrics.Phase.OPEN_RANGES, time);
+    checkInterrupted();
+    List<RankedSlot> ranking =
+        OPTIMIZERS.get().rank(availableTimes, events, request, limit);
+    metrics.recordQuery(start, events.size(), ranking.size());
+    return ranking;
   }
 
   /**
-   * This method handles case three, updating optimalTimes appropriately.
-   * In this case, our range is just the unavailability range, as it is 
-   * completely contained within the openRange. Mve to next unavailability range. 
-   * @param optimalTimes is the running list of optimal TimeRangeAndUnavailables
-   * @param unavailability is the current TimeRangeAndUnavailable slot we're evaluating
-   * @param openRange is the current open TimeRange we're evaluating (dictated by mandatory attendees)
-   * @param minUnavailability is the minimum unavailable optional attendees so far
-   * @param uIdx is the current index in the unavailability list
-   * @return int[] holds the updated minUnavailability and uIdx
+   * Same as {@code query}, but only looks at the given window of the day. The events are read
+   * from an {@code EventIntervalIndex}, so only the events overlapping the window are visited.
+   * @param index the index over all the Events throughout the day.
+   * @param request the MeetingRequest we are trying to satisfy.
+   * @param window the part of the day the meeting must fall within.
+   * @return Collection<TimeRange> the possible meeting times within the window.
    */
-  public int[] handleCaseThree(Collection<TimeRangeAndUnavailable> optimalTimes, 
-      TimeRangeAndUnavailable unavailability, TimeRange openRange, MeetingRequest request, 
-      int minUnavailability, int uIdx) {
-    if (unavailability.getTimeRange().duration() >= request.getDuration()) {
-      if (unavailability.getUnavailable() == minUnavailability) {
-        optimalTimes.add(new TimeRangeAndUnavailable(unavailability.getTimeRange(), 
-            minUnavailability));
-      }
-      if (unavailability.getUnavailable() < minUnavailability) {
-        optimalTimes.clear();
-        minUnavailability = unavailability.getUnavailable();
-        optimalTimes.add(new TimeRangeAndUnavailable(unavailability.getTimeRange(), 
-            minUnavailability));
+  public Collection<TimeRange> query(EventIntervalIndex index, MeetingRequest request,
+      TimeRange window) {
+    QueryMetrics metrics = QueryMetrics.getDefault();
+    long begin = metrics.start();
+    Collection<Event> events = index.overlapping(window);
+    Collection<TimeRange> mergedTimes = mergeTimes(events, request);
+    long time = metrics.record(QueryMetrics.Phase.MERGE, begin);
+    checkInterrupted();
+    Collection<TimeRange> availableTimes = new ArrayList<>();
+    for (TimeRange t : getOpenRanges(mergedTimes, request)) {
+      int start = Math.max(t.start(), window.start());
+      int end = Math.min(t.end(), window.end());
+      if (end - start >= request.getDuration()) {
+        availableTimes.add(TimeRange.fromStartEnd(start, end, false));
       }
     }
-    uIdx++;
-    return new int[] {minUnavailability, uIdx};
+    metrics.record(QueryMetrics.Phase.OPEN_RANGES, time);
+    checkInterrupted();
+    Collection<TimeRange> answer = optimizeForOptionalAttendees(availableTimes, events, request);
+    metrics.recordQuery(begin, events.size(), answer.size());
+    return answer;
   }
 
   /**
-   * This method returns true if the conditions satisfy case four: the unavailability range begins 
-   * during the openRange, and ends after (or at the same time) as the openRange. 
-   * And, the openRange is long enough to host a meeting.
-   * @param unavailability is the current TimeRangeAndUnavailable slot we're evaluating
-   * @param openRange is the current TimeRange we're evaluating
-   * @param request is the MeetingRequest we are trying to satisfy
+   * Same as {@code query}, but reads the mandatory attendees' merged busy times from a
+   * {@code BusyTimeSource}, such as shared {@code BusyTimelines} or an incrementally maintained
+   * {@code CalendarModel}, so their events don't have to be sorted and merged again.
+   * @param timelines the source of merged busy times for all the Events throughout the day.
+   * @param request the MeetingRequest we are trying to satisfy.
+   * @return Collection<TimeRange> the possible meeting times.
    */
-  public boolean isCaseFour(TimeRangeAndUnavailable unavailability, TimeRange openRange, 
-      MeetingRequest request) {
-    return unavailability.getTimeRange().startsDuringEndsOnOrAfter(openRange) && 
-        openRange.end() - unavailability.getTimeRange().start() >= request.getDuration();
+  public Collection<TimeRange> query(BusyTimeSource timelines, MeetingRequest request) {
+    QueryMetrics metrics = QueryMetrics.getDefault();
+    long start = metrics.start();
+    Collection<TimeRange> mergedTimes = mergeBusyTimes(timelines, request);
+    long time = metrics.record(QueryMetrics.Phase.MERGE, start);
+    checkInterrupted();
+    Collection<TimeRange> availableTimes = getOpenRanges(mergedTimes, request);
+    metrics.record(QueryMetrics.Phase.OPEN_RANGES, time);
+    checkInterrupted();
+    Collection<Event> events = timelines.getEvents();
+    Collection<TimeRange> answer = optimizeForOptionalAttendees(availableTimes, events, request);
+    metrics.recordQuery(start, events.size(), answer.size());
+    return answer;
   }
 
   /**
-   * This method handles case four, updating optimalTimes appropriately. 
-   * In this case, our range spans from the beginning of the unavailability range 
-   * to the end of openRange. If they end together, move to next unavailability range. 
-   * @param optimalTimes is the running list of optimal TimeRangeAndUnavailables
-   * @param unavailability is the current TimeRangeAndUnavailable slot we're evaluating
-   * @param openRange the current open TimeRange we're evaluating (dictated by mandatory attendees)
-   * @param minUnavailability is the minimum unavailable optional attendees so far
-   * @param uIdx is the current index in the unavailability list
-   * @return int[] holds the updated minUnavailability and uIdx
+   * Same as {@code query}, but reads everything from an {@code EventStore}: the mandatory
+   * attendees' merged busy times, and only the events of the optional attendees, since no other
+   * event can change which slots are optimal.
+   * @param store the store holding all the Events throughout the day.
+   * @param request the MeetingRequest we are trying to satisfy.
+   * @return Collection<TimeRange> the possible meeting times.
    */
-  public int[] handleCaseFour(Collection<TimeRangeAndUnavailable> optimalTimes, 
-      TimeRangeAndUnavailable unavailability, TimeRange openRange, 
-      int minUnavailability, int uIdx) {
-    if (unavailability.getUnavailable() == minUnavailability) {
-      optimalTimes.add(new TimeRangeAndUnavailable(TimeRange.
-        fromStartEnd(unavailability.getTimeRange().start(), openRange.end(), false), 
-            minUnavailability));
-    }
-    if (unavailability.getUnavailable() < minUnavailability) {
-      optimalTimes.clear();
-      minUnavailability = unavailability.getUnavailable();
-      optimalTimes.add(new TimeRangeAndUnavailable(TimeRange.
-          fromStartEnd(unavailability.getTimeRange().start(),openRange.end(), false), 
-              minUnavailability));
-    }
-    if (unavailability.getTimeRange().end() == openRange.end()) {
-      uIdx++;
-    }
-    return new int[] {minUnavailability, uIdx};
+  public Collection<TimeRange> query(EventStore store, MeetingRequest request) {
+    QueryMetrics metrics = QueryMetrics.getDefault();
+    long start = metrics.start();
+    Collection<TimeRange> mergedTimes = mergeBusyTimes(store, request);
+    long time = metrics.record(QueryMetrics.Phase.MERGE, start);
+    checkInterrupted();
+    Collection<TimeRange> availableTimes = getOpenRanges(mergedTimes, request);
+    metrics.record(QueryMetrics.Phase.OPEN_RANGES, time);
+    checkInterrupted();
+    Collection<Event> events = store.getEventsFor(request.getOptionalAttendees());
+    Collection<TimeRange> answer = optimizeForOptionalAttendees(availableTimes, events, request);
+    metrics.recordQuery(start, events.size(), answer.size());
+    return answer;
   }
-  
+
   /**
-   * This method retrieves a list of the optimal free times
-   * @param openRanges is the list of free times, based on mandatory attendees
-   * @param events is all the events throughout the day
-   * @param request is the original MeetingRequest object.
-   * @return Collection<TimeRangeAndUnavailable> optimal TimeRanges, and their unavailability.
+   * Same as {@code rank}, but reads everything from an {@code EventStore}.
+   * @param store the store holding all the Events throughout the day.
+   * @param request the MeetingRequest we are trying to satisfy.
+   * @param limit the maximum number of slots to return.
+   * @return List<RankedSlot> the best slots, best first and the earliest first among equals.
    */
-  public Collection<TimeRangeAndUnavailable> optimalTimeAndUnavailables(
-      Collection<TimeRange> openRanges, Collection<Event> events, MeetingRequest request) {
-    List<TimeRange> openRangeList = new ArrayList(openRanges);
-    Collection<Event> optionalOnlyEvents = getOptionalOnlyEvents(events, request);
-    List<TimeRangeAndUnavailable> unavailability = 
-        new ArrayList(getAllUnavailability(optionalOnlyEvents, request));
-    Collection<TimeRangeAndUnavailable> optimalTimes = new ArrayList<>();
-
-    int uIdx = 0;
-    int minUnavailability = Integer.MAX_VALUE;
-    for (int i = 0; i < openRangeList.size(); i++) {
-      
-      //Skip all intervals that are entirely before, they're irrelevant
-      while (uIdx < unavailability.size() && 
-          !unavailability.get(uIdx).getTimeRange().overlaps(openRangeList.get(i))) {
-        uIdx++;
-      }
-      if (uIdx >= unavailability.size()) break;
- 
-      if (isCaseOne(unavailability.get(uIdx), openRangeList.get(i), request)) {
-        int[] update = handleCaseOne(optimalTimes, unavailability.get(uIdx), 
-            openRangeList.get(i), minUnavailability, uIdx);
-        minUnavailability = update[0];
-        uIdx = update[1];
-        continue;
-      }
-
-      if (isCaseTwo(unavailability.get(uIdx), openRangeList.get(i), request)) {
-        int[] update = handleCaseTwo(optimalTimes, unavailability.get(uIdx), 
-            openRangeList.get(i), minUnavailability, uIdx);
-        minUnavailability = update[0];
-        uIdx = update[1];
-      }
-      if (uIdx >= unavailability.size()) break;
-
-      while (isCaseThree(unavailability, openRangeList.get(i), uIdx)) {
-        int[] update = handleCaseThree(optimalTimes, unavailability.get(uIdx), 
-            openRangeList.get(i), request, minUnavailability, uIdx);
-        minUnavailability = update[0];
-        uIdx = update[1];
-      }
-      if (uIdx >= unavailability.size()) break;
-
-      if (isCaseFour(unavailability.get(uIdx), openRangeList.get(i), request)) {
-        int[] update = handleCaseFour(optimalTimes, unavailability.get(uIdx), 
-            openRangeList.get(i), minUnavailability, uIdx);
-        minUnavailability = update[0];
-        uIdx = update[1];
-      }
-    }
-    return optimalTimes;
+  public List<RankedSlot> rank(EventStore store, MeetingRequest request, int limit) {
+    QueryMetrics metrics = QueryMetrics.getDefault();
+    long start = metrics.start();
+    Collection<TimeRange> mergedTimes = mergeBusyTimes(store, request);
+    long time = metrics.record(QueryMetrics.Phase.MERGE, start);
+    checkInterrupted();
+    Collection<TimeRange> availableTimes = getOpenRanges(mergedTimes, request);
+    metrics.record(QueryMetrics.Phase.OPEN_RANGES, time);
+    checkInterrupted();
+    Collection<Event> events = store.getEventsFor(request.getOptionalAttendees());
+    List<RankedSlot> ranking =
+        OPTIMIZERS.get().rank(availableTimes, events, request, limit);
+    metrics.recordQuery(start, events.size(), ranking.size());
+    return ranking;
   }
 
-  public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
-    Collection<TimeRange> mergedTimes = mergeTimes(events, request);
+  /**
+   * This method finds the gaps between the merged busy times that can fit the meeting.
+   * Package-private so the benchmarks can measure this phase on its own.
+   * @param mergedTimes the busy times of the mandatory attendees, merged and sorted.
+   * @param request the MeetingRequest we are trying to satisfy.
+   * @return Collection<TimeRange> the open slots, based on mandatory attendees.
+   */
+  Collection<TimeRange> getOpenRanges(Collection<TimeRange> mergedTimes,
+      MeetingRequest request) {
     Collection<TimeRange> availableTimes = new ArrayList<>();
     int start = TimeRange.START_OF_DAY;
     int end = TimeRange.START_OF_DAY;
@@ -431,40 +537,107 @@ public final class FindMeetingQuery {
     if (end - start >= request.getDuration()) {
       availableTimes.add(TimeRange.fromStartEnd(start, end, true));
     }
+    return availableTimes;
+  }
 
-    List<TimeRangeAndUnavailable> optimalTimeAndUnavailables = 
-        new ArrayList(optimalTimeAndUnavailables(availableTimes, events, request));
-    int numOptional = request.getOptionalAttendees().size();
-
-    //If no optimal subranges are found, just return open slots. No way to optimize.
-    if (optimalTimeAndUnavailables.isEmpty()) {
-      return availableTimes;
-    }
-    
-    else {
-      int minUnavailability = optimalTimeAndUnavailables.get(0).getUnavailable();
-      //If the best we can do is that all optional attendees are unavailable, no way to optimize.
-      if (minUnavailability == numOptional) {
-        return availableTimes;
-      }
+  /**
+   * Same as {@code query}, but reads the mandatory attendees' availability from a prebuilt
+   * {@code CalendarIndex} instead of sorting and merging the events.
+   * @param index the index over all the Events throughout the day.
+   * @param request the MeetingRequest we are trying to satisfy.
+   * @return Collection<TimeRange> the possible meeting times.
+   */
+  public Collection<TimeRange> query(CalendarIndex index, MeetingRequest request) {
+    QueryMetrics metrics = QueryMetrics.getDefault();
+    long start = metrics.start();
+    long[] busy = index.busyMinutes(request.getAttendees());
+    long time = metrics.record(QueryMetrics.Phase.MERGE, start);
+    checkInterrupted();
+    Collection<TimeRange> availableTimes = CalendarIndex.freeRanges(busy, request.getDuration());
+    metrics.record(QueryMetrics.Phase.OPEN_RANGES, time);
+    checkInterrupted();
+    Collection<Event> events = index.getEvents();
+    Collection<TimeRange> answer = optimizeForOptionalAttendees(availableTimes, events, request);
+    metrics.recordQuery(start, events.size(), answer.size());
+    return answer;
+  }
 
-      //If no mandatory and 2 optional attendees and optimal is 1 free at a time, no meeting.
-      if (request.getAttendees().size() == 0 && numOptional == 2 && minUnavailability >= 1) {
-        return new ArrayList<TimeRange>();
-      }
+  /**
+   * Same as {@code query} over a {@code CalendarIndex}, but every attendee is only available
+   * within their working hours. The off hours are ORed into the busy bitmaps before the free
+   * ranges are scanned, so no slot outside a mandatory attendee's working hours is generated, and
+   * an optional attendee counts as unavailable outside theirs. If the request has rooms, only
+   * times when one of them is free are considered.
+   * @param index the index over all the Events throughout the day.
+   * @param masks the off hours of the attendees on this day.
+   * @param request the MeetingRequest we are trying to satisfy.
+   * @return Collection<TimeRange> the possible meeting times.
+   */
+  public Collection<TimeRange> query(CalendarIndex index, AvailabilityMasks masks,
+      MeetingRequest request) {
+    QueryMetrics metrics = QueryMetrics.getDefault();
+    long start = metrics.start();
+    Collection<TimeRange> answer = optimizeWithinWorkingHours(index, masks, request, start);
+    metrics.recordQuery(start, index.getEvents().size(), answer.size());
+    return answer;
+  }
 
+  /**
+   * Finds when the meeting could take place together with a room for it, picked from the
+   * request's rooms. Rooms are indexed like attendees, so the times when no room that seats
+   * everyone is free are ruled out in the same pass as the attendees' busy times, before the
+   * optional attendees are considered. Each slot then gets the smallest room free for it.
+   * @param index the index over all the Events throughout the day, including room bookings.
+   * @param masks the off hours of the attendees on this day.
+   * @param request the MeetingRequest we are trying to satisfy, with at least one room.
+   * @return List<RoomSlot> the possible meeting times with their rooms, in
+   *     {@code RoomSlot.ORDER_BY_START} order.
+   */
+  public List<RoomSlot> queryRooms(CalendarIndex index, AvailabilityMasks masks,
+      MeetingRequest request) {
+    if (request.getRooms().isEmpty()) {
+      throw new IllegalArgumentException("request must have at least one room");
     }
-    List<TimeRange> optimalTimes = new ArrayList<>();
-    for (TimeRangeAndUnavailable t : optimalTimeAndUnavailables) {
-      if (t.getTimeRange().duration() >= request.getDuration()) {
-        optimalTimes.add(t.getTimeRange());
-      }
-    } 
+    QueryMetrics metrics = QueryMetrics.getDefault();
+    long start = metrics.start();
+    List<RoomSlot> slots = index.assignRooms(
+        optimizeWithinWorkingHours(index, masks, request, start), request.getRooms(),
+        request.getSeats(), request.getDuration());
+    metrics.recordQuery(start, index.getEvents().size(), slots.size());
+    return slots;
+  }
 
-    if (request.getAttendees().size() > 0 && optimalTimes.isEmpty()) {
+  /**
+   * Finds the optimal slots within the attendees' working hours, timing the merge and open-range
+   * phases from {@code start}. The caller records the whole query, since what it returns differs.
+   */
+  private Collection<TimeRange> optimizeWithinWorkingHours(CalendarIndex index,
+      AvailabilityMasks masks, MeetingRequest request, long start) {
+    QueryMetrics metrics = QueryMetrics.getDefault();
+    long[] busy = index.busyMinutes(request, masks);
+    long time = metrics.record(QueryMetrics.Phase.MERGE, start);
+    checkInterrupted();
+    Collection<TimeRange> availableTimes = CalendarIndex.freeRanges(busy, request.getDuration());
+    metrics.record(QueryMetrics.Phase.OPEN_RANGES, time);
+    checkInterrupted();
+    if (request.getOptionalAttendees().isEmpty()) {
       return availableTimes;
     }
+    return OPTIMIZERS.get().optimize(availableTimes, index.getEvents(), request, masks);
+  }
 
-    return optimalTimes;
+  /**
+   * This method narrows the open slots down to the ones that fit the most optional attendees.
+   * @param availableTimes the open slots, based on mandatory attendees.
+   * @param events all the Events throughout the day.
+   * @param request the MeetingRequest we are trying to satisfy.
+   * @return Collection<TimeRange> the optimal slots, or the open ones if there's no way to optimize.
+   */
+  private Collection<TimeRange> optimizeForOptionalAttendees(Collection<TimeRange> availableTimes,
+      Collection<Event> events, MeetingRequest request) {
+    if (request.getOptionalAttendees().isEmpty()) {
+      return availableTimes;
+    }
+    return OPTIMIZERS.get().optimize(availableTimes, events, request);
   }
 }
@@ -0,0 +1,320 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Index of busy times over a horizon of many days, measured in epoch minutes. Each attendee's busy
+ * times are kept sorted and merged, so finding the first free slots for a group of people over the
+ * next weeks is a single k-way merge of their busy lists rather than one query per day.
+ *
+ * <p>Recurring events are kept as series and expanded lazily during that merge, only for the days
+ * of the horizon being searched, so a series costs the same however long it runs.
+ *
+ * <p>Adding events and querying are not thread-safe.
+ */
+public final class HorizonIndex {
+  private final Map<String, Timeline> timelines = new HashMap<>();
+
+  /**
+   * Adds an event that takes place on the given day.
+   * @param event the event, with its time counted from the start of the day.
+   * @param epochDay the day the event takes place on, counted in days since the epoch.
+   */
+  public void add(Event event, long epochDay) {
+    add(event.getAttendees(), EpochRange.onDay(epochDay, event.getWhen()));
+  }
+
+  /**
+   * Marks the given attendees as busy for the given range.
+   */
+  public void add(Collection<String> attendees, EpochRange when) {
+    for (String attendee : attendees) {
+      timeline(attendee).add(when.start(), when.end());
+    }
+  }
+
+  private Timeline timeline(String attendee) {
+    Timeline timeline = timelines.get(attendee);
+    if (timeline == null) {
+      timeline = new Timeline();
+      timelines.put(attendee, timeline);
+    }
+    return timeline;
+  }
+
+  /**
+   * Adds a recurring event. Its occurrences are never stored, only worked out while searching.
+   */
+  public void add(RecurringEvent event) {
+    for (String attendee : event.getEvent().getAttendees()) {
+      timeline(attendee).series.add(event);
+    }
+  }
+
+  /**
+   * Finds the first free ranges within the horizon where all the given attendees can meet. Free
+   * ranges are not cut at day boundaries.
+   * @param attendees the people who must all be free.
+   * @param horizon the window to search, e.g. {@code EpochRange.ofDays(today, 30)}.
+   * @param duration the length of the meeting in minutes.
+   * @param limit the maximum number of ranges to return.
+   * @return List<EpochRange> up to {@code limit} free ranges, in ascending order of start time.
+   */
+  public List<EpochRange> firstSlots(Collection<String> attendees, EpochRange horizon,
+      long duration, int limit) {
+    PriorityQueue<Cursor> cursors = new PriorityQueue<>(Cursor.ORDER_BY_START);
+    for (String attendee : new HashSet<>(attendees)) {
+      Timeline timeline = timelines.get(attendee);
+      if (timeline == null) {
+        continue;
+      }
+      timeline.merge();
+      int position = timeline.firstEndingAfter(horizon.start());
+      if (position < timeline.size) {
+        cursors.add(new TimelineCursor(timeline, position));
+      }
+      for (RecurringEvent event : timeline.series) {
+        SeriesCursor cursor = new SeriesCursor(event);
+        if (cursor.seek(horizon.start())) {
+          cursors.add(cursor);
+        }
+      }
+    }
+
+    List<EpochRange> slots = new ArrayList<>();
+    long freeFrom = horizon.start();
+    while (!cursors.isEmpty() && freeFrom < horizon.end() && slots.size() < limit) {
+      Cursor cursor = cursors.poll();
+      long busyStart = cursor.start();
+      if (busyStart >= horizon.end()) {
+        break;
+      }
+      if (busyStart > freeFrom && busyStart - freeFrom >= duration) {
+        slots.add(EpochRange.fromStartEnd(freeFrom, busyStart));
+      }
+      freeFrom = Math.max(freeFrom, cursor.end());
+      if (cursor.advance()) {
+        cursors.add(cursor);
+      }
+    }
+    if (slots.size() < limit && freeFrom < horizon.end()
+        && horizon.end() - freeFrom >= duration) {
+      slots.add(EpochRange.fromStartEnd(freeFrom, horizon.end()));
+    }
+    return slots;
+  }
+
+  /**
+   * Finds when the requested meeting could take place within the horizon. Slots that fit the
+   * optional attendees as well are preferred; if there are none, the slots that fit just the
+   * mandatory attendees are returned. Without mandatory attendees, the optional ones must all
+   * attend.
+   * @param request the MeetingRequest we are trying to satisfy.
+   * @param horizon the window to search.
+   * @param limit the maximum number of ranges to return.
+   * @return List<EpochRange> up to {@code limit} free ranges, in ascending order of start time.
+   */
+  public List<EpochRange> query(MeetingRequest request, EpochRange horizon, int limit) {
+    if (!request.getOptionalAttendees().isEmpty()) {
+      Set<String> everyone = new HashSet<>(request.getAttendees());
+      everyone.addAll(request.getOptionalAttendees());
+      List<EpochRange> slots = firstSlots(everyone, horizon, request.getDuration(), limit);
+      if (!slots.isEmpty() || request.getAttendees().isEmpty()) {
+        return slots;
+      }
+    }
+    return firstSlots(request.getAttendees(), horizon, request.getDuration(), limit);
+  }
+
+  /**
+   * One attendee's busy times. Ranges are appended as they come and merged lazily before the
+   * next query. Recurring events are kept aside as series.
+   */
+  private static final class Timeline {
+    private final List<RecurringEvent> series = new ArrayList<>();
+    private long[] starts = new long[8];
+    private long[] ends = new long[8];
+    private int size;
+    private boolean merged = true;
+
+    void add(long start, long end) {
+      if (size == starts.length) {
+        starts = Arrays.copyOf(starts, 2 * size);
+        ends = Arrays.copyOf(ends, 2 * size);
+      }
+      starts[size] = start;
+      ends[size] = end;
+      size++;
+      merged = false;
+    }
+
+    /**
+     * Merges overlapping and touching ranges. The union of ranges only depends on the sorted
+     * starts and the sorted ends, so the two arrays can be sorted independently.
+     */
+    void merge() {
+      if (merged) {
+        return;
+      }
+      Arrays.sort(starts, 0, size);
+      Arrays.sort(ends, 0, size);
+
+      int mergedSize = 0;
+      int open = 0;
+      int e = 0;
+      long unionStart = 0;
+      for (int s = 0; s < size; s++) {
+        // Close every range that ends strictly before this one starts.
+        while (ends[e] < starts[s]) {
+          e++;
+          if (--open == 0) {
+            starts[mergedSize] = unionStart;
+            ends[mergedSize] = ends[e - 1];
+            mergedSize++;
+          }
+        }
+        if (open++ == 0) {
+          unionStart = starts[s];
+        }
+      }
+      starts[mergedSize] = unionStart;
+      ends[mergedSize] = ends[size - 1];
+      size = mergedSize + 1;
+      merged = true;
+    }
+
+    /**
+     * Returns the index of the first merged range that ends after {@code time}.
+     */
+    int firstEndingAfter(long time) {
+      int low = 0;
+      int high = size;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (ends[mid] <= time) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+
+  /**
+   * Position within one source of busy times during a k-way merge.
+   */
+  private abstract static class Cursor {
+    static final Comparator<Cursor> ORDER_BY_START = new Comparator<Cursor>() {
+      @Override
+      public int compare(Cursor a, Cursor b) {
+        return Long.compare(a.start(), b.start());
+      }
+    };
+
+    abstract long start();
+
+    abstract long end();
+
+    abstract boolean advance();
+  }
+
+  /**
+   * Position within one attendee's merged busy times.
+   */
+  private static final class TimelineCursor extends Cursor {
+    private final Timeline timeline;
+    private int position;
+
+    TimelineCursor(Timeline timeline, int position) {
+      this.timeline = timeline;
+      this.position = position;
+    }
+
+    @Override
+    long start() {
+      return timeline.starts[position];
+    }
+
+    @Override
+    long end() {
+      return timeline.ends[position];
+    }
+
+    @Override
+    boolean advance() {
+      return ++position < timeline.size;
+    }
+  }
+
+  /**
+   * Position within the occurrences of a recurring event, which are worked out one at a time.
+   */
+  private static final class SeriesCursor extends Cursor {
+    private final RecurringEvent event;
+    private EpochRange occurrence;
+    private long day;
+
+    SeriesCursor(RecurringEvent event) {
+      this.event = event;
+    }
+
+    /**
+     * Moves to the first occurrence that ends after {@code time}.
+     * @return boolean false if there is no such occurrence.
+     */
+    boolean seek(long time) {
+      // The occurrence on a day ends after the time from the day after this one on.
+      long first = Math.floorDiv(time - event.getEvent().getWhen().end(),
+          (long) EpochRange.MINUTES_PER_DAY) + 1;
+      return moveTo(event.getRecurrence().nextOccurrence(first));
+    }
+
+    @Override
+    long start() {
+      return occurrence.start();
+    }
+
+    @Override
+    long end() {
+      return occurrence.end();
+    }
+
+    @Override
+    boolean advance() {
+      return moveTo(event.getRecurrence().nextOccurrence(day + 1));
+    }
+
+    private boolean moveTo(long next) {
+      if (next == Recurrence.NO_OCCURRENCE) {
+        return false;
+      }
+      day = next;
+      occurrence = event.occurrenceOn(day);
+      return true;
+    }
+  }
+}
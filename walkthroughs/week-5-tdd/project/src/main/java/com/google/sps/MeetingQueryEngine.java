@@ -0,0 +1,33 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Collection;
+
+/**
+ * Common contract for the different ways of answering a {@code MeetingRequest}. Every engine must
+ * return the same time ranges for the same events and request; they only differ in how they get
+ * there.
+ */
+public interface MeetingQueryEngine {
+
+  /**
+   * Finds the times when the requested meeting could take place.
+   * @param events all the known Events throughout the day.
+   * @param request the MeetingRequest we are trying to satisfy.
+   * @return Collection<TimeRange> the possible meeting times, in ascending order of start time.
+   */
+  Collection<TimeRange> query(Collection<Event> events, MeetingRequest request);
+}
@@ -19,6 +19,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 
 public final class MeetingRequest {
   // All the people that should be attending this new meeting. Use a set to avoid duplicates.
@@ -27,9 +28,17 @@ public final class MeetingRequest {
   // Some optional attendees for this new meeting. Use a set to avoid duplicates.
   private final Collection<String> optional_attendees = new HashSet<>();
 
+  // The rooms the meeting may take place in, if it needs one. Use a set to avoid duplicates.
+  private final Collection<Room> rooms = new LinkedHashSet<>();
+
   // The duration of the meeting in minutes.
   private final long duration;
 
+  // The ids of the attendees known to the default AttendeeDictionary, sorted. Computed on first
+  // use, and only kept once every attendee is known: a name without events has no id yet.
+  private transient volatile int[] attendeeIds;
+  private transient volatile int[] optionalAttendeeIds;
+
   public MeetingRequest(Collection<String> attendees, long duration) {
     this.duration = duration;
     this.attendees.addAll(attendees);
@@ -55,7 +64,80 @@ public final class MeetingRequest {
   public void addOptionalAttendee(String attendee) {
     if (!attendees.contains(attendee)) {
       optional_attendees.add(attendee);
+      optionalAttendeeIds = null;
+    }
+  }
+
+  /**
+   * Returns a read-only copy of the rooms the meeting may take place in. Empty if the meeting
+   * doesn't need a room.
+   */
+  public Collection<Room> getRooms() {
+    return Collections.unmodifiableCollection(rooms);
+  }
+
+  /**
+   * Adds one room from the pool the meeting's room is picked from.
+   */
+  public void addRoom(Room room) {
+    if (room == null) {
+      throw new IllegalArgumentException("room cannot be null");
+    }
+    rooms.add(room);
+  }
+
+  /**
+   * Returns how many seats the meeting's room needs: one for every required and optional
+   * attendee.
+   */
+  public int getSeats() {
+    return attendees.size() + optional_attendees.size();
+  }
+
+  /**
+   * Returns a copy of the sorted ids of the required attendees in the default
+   * {@code AttendeeDictionary}. Attendees who aren't at any event have no id and are left out.
+   */
+  public int[] getAttendeeIds() {
+    return attendeeIds().clone();
+  }
+
+  /**
+   * Returns a copy of the sorted ids of the optional attendees in the default
+   * {@code AttendeeDictionary}. Attendees who aren't at any event have no id and are left out.
+   */
+  public int[] getOptionalAttendeeIds() {
+    return optionalAttendeeIds().clone();
+  }
+
+  /**
+   * Returns the sorted ids of the required attendees without copying them. Callers must not modify
+   * the array.
+   */
+  int[] attendeeIds() {
+    int[] ids = attendeeIds;
+    if (ids == null) {
+      ids = AttendeeDictionary.getDefault().lookupAll(attendees);
+      if (ids.length == attendees.size()) {
+        attendeeIds = ids;
+      }
+    }
+    return ids;
+  }
+
+  /**
+   * Returns the sorted ids of the optional attendees without copying them. Callers must not modify
+   * the array.
+   */
+  int[] optionalAttendeeIds() {
+    int[] ids = optionalAttendeeIds;
+    if (ids == null) {
+      ids = AttendeeDictionary.getDefault().lookupAll(optional_attendees);
+      if (ids.length == optional_attendees.size()) {
+        optionalAttendeeIds = ids;
+      }
     }
+    return ids;
   }
 
   /**
@@ -0,0 +1,135 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * Helpers for working with one day of minutes packed into a {@code long[]}, one bit per minute.
+ * Bit {@code m} is set when minute {@code m} of {@code TimeRange.WHOLE_DAY} is taken.
+ */
+public final class MinuteBitmap {
+  public static final int MINUTES = TimeRange.WHOLE_DAY.duration();
+  public static final int WORDS = (MINUTES + Long.SIZE - 1) / Long.SIZE;
+
+  private MinuteBitmap() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns a new bitmap with no minutes set.
+   */
+  public static long[] create() {
+    return new long[WORDS];
+  }
+
+  /**
+   * Sets every minute of [start, end) in the bitmap. The range is clipped to the day.
+   */
+  public static void set(long[] bits, int start, int end) {
+    start = Math.max(start, 0);
+    end = Math.min(end, MINUTES);
+    if (start >= end) {
+      return;
+    }
+
+    int startWord = start >>> 6;
+    int endWord = (end - 1) >>> 6;
+    long firstMask = -1L << start;
+    long lastMask = -1L >>> -end;
+    if (startWord == endWord) {
+      bits[startWord] |= firstMask & lastMask;
+      return;
+    }
+    bits[startWord] |= firstMask;
+    for (int w = startWord + 1; w < endWord; w++) {
+      bits[w] = -1L;
+    }
+    bits[endWord] |= lastMask;
+  }
+
+  /**
+   * Returns whether the given minute is set.
+   */
+  public static boolean get(long[] bits, int minute) {
+    return (bits[minute >>> 6] & (1L << minute)) != 0;
+  }
+
+  /**
+   * ORs {@code other} into {@code bits}.
+   */
+  public static void or(long[] bits, long[] other) {
+    for (int w = 0; w < WORDS; w++) {
+      bits[w] |= other[w];
+    }
+  }
+
+  /**
+   * ANDs {@code other} into {@code bits}.
+   */
+  public static void and(long[] bits, long[] other) {
+    for (int w = 0; w < WORDS; w++) {
+      bits[w] &= other[w];
+    }
+  }
+
+  /**
+   * Clears every minute of {@code bits} that is set in {@code other}.
+   */
+  public static void andNot(long[] bits, long[] other) {
+    for (int w = 0; w < WORDS; w++) {
+      bits[w] &= ~other[w];
+    }
+  }
+
+  /**
+   * Returns the first set minute at or after {@code from}, or {@code MINUTES} if there is none.
+   */
+  public static int nextSet(long[] bits, int from) {
+    if (from >= MINUTES) {
+      return MINUTES;
+    }
+    int w = from >>> 6;
+    long word = bits[w] & (-1L << from);
+    while (true) {
+      if (word != 0) {
+        return Math.min(w * Long.SIZE + Long.numberOfTrailingZeros(word), MINUTES);
+      }
+      if (++w == WORDS) {
+        return MINUTES;
+      }
+      word = bits[w];
+    }
+  }
+
+  /**
+   * Returns the first minute that is not set at or after {@code from}, or {@code MINUTES} if
+   * there is none.
+   */
+  public static int nextClear(long[] bits, int from) {
+    if (from >= MINUTES) {
+      return MINUTES;
+    }
+    int w = from >>> 6;
+    long word = ~bits[w] & (-1L << from);
+    while (true) {
+      if (word != 0) {
+        return Math.min(w * Long.SIZE + Long.numberOfTrailingZeros(word), MINUTES);
+      }
+      if (++w == WORDS) {
+        return MINUTES;
+      }
+      word = ~bits[w];
+    }
+  }
+}
@@ -0,0 +1,277 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Narrows the open ranges left by the mandatory attendees down to the ones that the most optional
+ * attendees can make. Each optional attendee's busy minutes are merged into a bitmap first, so an
+ * attendee with overlapping events is only counted once. A {@code SweepLine} over the runs of busy
+ * minutes then gives, for every minute, how many distinct optional attendees are unavailable, in
+ * O(E + 1440) for E events.
+ *
+ * <p>The open ranges are split wherever that count changes or an optional attendee's busy time
+ * starts or ends, so every piece has one set of unavailable attendees throughout. The pieces that
+ * fit the meeting and have the fewest unavailable attendees win, or can be ranked by score.
+ *
+ * <p>An instance allocates its scratch buffers on first use and reuses them from one call to the
+ * next, so it is not thread-safe. {@code FindMeetingQuery} keeps one per thread.
+ */
+public final class OptionalAttendanceOptimizer {
+  private static final int MINUTES = MinuteBitmap.MINUTES;
+  private static final int INITIAL_CAPACITY = 16;
+
+  // How many distinct optional attendees are unavailable at each minute, after the prefix sum.
+  private int[] unavailable;
+  // Minutes where some optional attendee's busy time starts or ends.
+  private boolean[] boundaries;
+  // Sweeps the runs of busy minutes of all the optional attendees.
+  private SweepLine sweep;
+  private final UnavailableCounter counter = new UnavailableCounter();
+  // One busy bitmap per optional attendee.
+  private long[][] busy = new long[0][];
+
+  /**
+   * This method keeps the open slots that fit the most optional attendees.
+   * @param openRanges the open slots, based on mandatory attendees, in ascending order.
+   * @param events all the Events throughout the day.
+   * @param request the MeetingRequest we are trying to satisfy.
+   * @return Collection<TimeRange> the optimal slots. With mandatory attendees, the open slots are
+   *     returned when no optional attendee can make any of them. Without mandatory attendees, the
+   *     optional attendees are treated as mandatory and the slots must fit all of them.
+   */
+  public Collection<TimeRange> optimize(Collection<TimeRange> openRanges,
+      Collection<Event> events, MeetingRequest request) {
+    return optimize(openRanges, events, request, AvailabilityMasks.NONE);
+  }
+
+  /**
+   * Same as {@code optimize}, but an optional attendee is also unavailable outside their working
+   * hours.
+   * @param openRanges the open slots, based on mandatory attendees, in ascending order.
+   * @param events all the Events throughout the day.
+   * @param request the MeetingRequest we are trying to satisfy.
+   * @param masks the off hours of the attendees on this day.
+   * @return Collection<TimeRange> the optimal slots, as for {@code optimize}.
+   */
+  public Collection<TimeRange> optimize(Collection<TimeRange> openRanges,
+      Collection<Event> events, MeetingRequest request, AvailabilityMasks masks) {
+    int optionalCount = request.getOptionalAttendees().size();
+    boolean hasMandatory = !request.getAttendees().isEmpty();
+    if (optionalCount == 0) {
+      return openRanges;
+    }
+    QueryMetrics metrics = QueryMetrics.getDefault();
+    long time = metrics.start();
+    countUnavailable(events, request, masks);
+    time = metrics.record(QueryMetrics.Phase.UNAVAILABILITY, time);
+    FindMeetingQuery.checkInterrupted();
+
+    long duration = request.getDuration();
+    List<TimeRange> best = new ArrayList<>();
+    int minUnavailable = Integer.MAX_VALUE;
+    for (TimeRange open : openRanges) {
+      for (int start = open.start(), end; start < open.end(); start = end) {
+        end = pieceEnd(start, open.end());
+        int count = unavailable[start];
+        if (end - start >= duration && count <= minUnavailable) {
+          if (count < minUnavailable) {
+            best.clear();
+            minUnavailable = count;
+          }
+          best.add(TimeRange.fromStartEnd(start, end, false));
+        }
+      }
+    }
+    metrics.record(QueryMetrics.Phase.OPTIMIZE, time);
+
+    if (minUnavailable == 0) {
+      return best;
+    }
+    if (!hasMandatory) {
+      return new ArrayList<TimeRange>();
+    }
+    if (best.isEmpty() || minUnavailable == optionalCount) {
+      return openRanges;
+    }
+    return best;
+  }
+
+  /**
+   * This method scores every piece of the open slots that fits the meeting by how many optional
+   * attendees can make it, and keeps the best ones. Only {@code limit} slots are held at any time,
+   * so asking for a few slots stays cheap even when the day is broken into many pieces.
+   * @param openRanges the open slots, based on mandatory attendees, in ascending order.
+   * @param events all the Events throughout the day.
+   * @param request the MeetingRequest we are trying to satisfy.
+   * @param limit the maximum number of slots to return.
+   * @return List<RankedSlot> up to {@code limit} slots, in {@code RankedSlot.ORDER_BY_SCORE}
+   *     order.
+   */
+  public List<RankedSlot> rank(Collection<TimeRange> openRanges, Collection<Event> events,
+      MeetingRequest request, int limit) {
+    if (limit < 1) {
+      throw new IllegalArgumentException("limit must be positive");
+    }
+    int optionalCount = request.getOptionalAttendees().size();
+    QueryMetrics metrics = QueryMetrics.getDefault();
+    long time = metrics.start();
+    countUnavailable(events, request, AvailabilityMasks.NONE);
+    time = metrics.record(QueryMetrics.Phase.UNAVAILABILITY, time);
+    FindMeetingQuery.checkInterrupted();
+
+    // The worst slot kept so far sits at the head, ready to be replaced.
+    long duration = request.getDuration();
+    PriorityQueue<RankedSlot> kept = new PriorityQueue<>(Math.min(limit, INITIAL_CAPACITY),
+        Collections.reverseOrder(RankedSlot.ORDER_BY_SCORE));
+    for (TimeRange open : openRanges) {
+      for (int start = open.start(), end; start < open.end(); start = end) {
+        end = pieceEnd(start, open.end());
+        if (end - start < duration) {
+          continue;
+        }
+        // Pieces come in ascending order of start, so a piece only beats the worst kept slot when
+        // more optional attendees can make it.
+        int available = optionalCount - unavailable[start];
+        if (kept.size() == limit) {
+          if (available <= kept.peek().getAvailableOptional()) {
+            continue;
+          }
+          kept.poll();
+        }
+        kept.add(new RankedSlot(TimeRange.fromStartEnd(start, end, false), available));
+      }
+    }
+
+    List<RankedSlot> ranked = new ArrayList<>(kept);
+    Collections.sort(ranked, RankedSlot.ORDER_BY_SCORE);
+    metrics.record(QueryMetrics.Phase.OPTIMIZE, time);
+    return ranked;
+  }
+
+  /**
+   * Fills {@code unavailable} and {@code boundaries} for the request's optional attendees, who are
+   * busy during their events and outside their working hours. Optional attendees without an id
+   * have no events, so they only get a bitmap of their own when their working hours restrict
+   * them.
+   */
+  private void countUnavailable(Collection<Event> events, MeetingRequest request,
+      AvailabilityMasks masks) {
+    int[] optional = request.optionalAttendeeIds();
+    int capacity = request.getOptionalAttendees().size();
+    if (busy.length < capacity) {
+      int oldLength = busy.length;
+      busy = Arrays.copyOf(busy, capacity);
+      for (int i = oldLength; i < busy.length; i++) {
+        busy[i] = MinuteBitmap.create();
+      }
+    }
+    for (int i = 0; i < capacity; i++) {
+      Arrays.fill(busy[i], 0L);
+    }
+    if (sweep == null) {
+      unavailable = new int[MINUTES + 1];
+      boundaries = new boolean[MINUTES + 1];
+      sweep = new SweepLine();
+    } else {
+      Arrays.fill(boundaries, false);
+      sweep.clear();
+    }
+
+    for (Event e : events) {
+      TimeRange when = e.getWhen();
+      for (int id : e.attendeeIds()) {
+        int i = Arrays.binarySearch(optional, id);
+        if (i >= 0) {
+          MinuteBitmap.set(busy[i], when.start(), when.end());
+        }
+      }
+    }
+    int used = optional.length;
+    if (masks != AvailabilityMasks.NONE) {
+      AttendeeDictionary dictionary = AttendeeDictionary.getDefault();
+      for (String name : request.getOptionalAttendees()) {
+        int id = dictionary.lookup(name);
+        int i = id < 0 ? -1 : Arrays.binarySearch(optional, id);
+        if (i < 0) {
+          i = used++;
+        }
+        masks.addOffHours(busy[i], Collections.singleton(name));
+      }
+    }
+
+    // Every run of busy minutes adds one unavailable attendee from its start to its end.
+    for (int i = 0; i < used; i++) {
+      long[] bits = busy[i];
+      int start = MinuteBitmap.nextSet(bits, 0);
+      while (start < MINUTES) {
+        int end = MinuteBitmap.nextClear(bits, start);
+        sweep.add(start, end, 1);
+        start = MinuteBitmap.nextSet(bits, end);
+      }
+    }
+    counter.reset();
+    sweep.visit(counter);
+    Arrays.fill(unavailable, counter.last, MINUTES + 1, counter.count);
+  }
+
+  /**
+   * Fills {@code unavailable} with the running count of the sweep up to every endpoint, and marks
+   * the endpoints in {@code boundaries}.
+   */
+  private final class UnavailableCounter implements SweepLine.Visitor {
+    private int last;
+    private int count;
+
+    void reset() {
+      last = 0;
+      count = 0;
+    }
+
+    @Override
+    public void visit(int time, int started, int ended) {
+      Arrays.fill(unavailable, last, time, count);
+      count += started - ended;
+      boundaries[time] = true;
+      last = time;
+    }
+  }
+
+  /**
+   * Returns where the piece starting at {@code start} ends, without going past {@code end}.
+   */
+  private int pieceEnd(int start, int end) {
+    int minute = start + 1;
+    while (minute < end && !splitsAt(minute)) {
+      minute++;
+    }
+    return minute;
+  }
+
+  /**
+   * Returns whether a new piece starts at the given minute: either the count changes, or the same
+   * number of attendees are unavailable but they aren't the same people.
+   */
+  private boolean splitsAt(int minute) {
+    return unavailable[minute] != unavailable[minute - 1]
+        || (boundaries[minute] && unavailable[minute] > 0);
+  }
+}
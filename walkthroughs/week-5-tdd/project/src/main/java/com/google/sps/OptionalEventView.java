@@ -0,0 +1,62 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * An event seen through a meeting request's optional attendees: the original event and how many
+ * of the request's optional attendees it keeps busy. Neither the event nor its attendees are
+ * copied until {@code toOptionalEvent} is called.
+ */
+public final class OptionalEventView {
+  private final Event event;
+  // The sorted ids of the request's optional attendees, shared by every view of the request.
+  private final int[] optionalIds;
+  private final int optionalCount;
+
+  OptionalEventView(Event event, int[] optionalIds) {
+    this.event = event;
+    this.optionalIds = optionalIds;
+    this.optionalCount = AttendeeSets.intersectionSize(event.attendeeIds(), optionalIds);
+  }
+
+  /**
+   * Returns the original event, with all its attendees.
+   */
+  public Event getEvent() {
+    return event;
+  }
+
+  /**
+   * Returns the time of the event.
+   */
+  public TimeRange getWhen() {
+    return event.getWhen();
+  }
+
+  /**
+   * Returns how many of the request's optional attendees are at the event.
+   */
+  public int getOptionalCount() {
+    return optionalCount;
+  }
+
+  /**
+   * Returns a copy of the event whose attendees are only the request's optional attendees.
+   */
+  public Event toOptionalEvent() {
+    int[] ids = AttendeeSets.intersection(event.attendeeIds(), optionalIds);
+    return new Event(event.getTitle(), event.getWhen(), FindMeetingQuery.names(ids), ids);
+  }
+}
@@ -0,0 +1,186 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Answers the same queries as {@code FindMeetingQuery}, but works on packed {@code int[]} start and
+ * end arrays held in scratch buffers that are reused from one query to the next, along with an
+ * {@code OptionalAttendanceOptimizer} that keeps its own buffers. The only objects created per
+ * query are the open and result lists and their TimeRanges.
+ *
+ * <p>Because of the shared scratch buffers an instance is not thread-safe; use one per thread.
+ */
+public final class PackedFindMeetingQuery implements MeetingQueryEngine {
+  private static final int INITIAL_CAPACITY = 16;
+
+  // Events involving at least one mandatory attendee, and the sort keys used to order them.
+  private int[] busyStarts = new int[INITIAL_CAPACITY];
+  private int[] busyEnds = new int[INITIAL_CAPACITY];
+  private long[] sortKeys = new long[INITIAL_CAPACITY];
+
+  // Busy times of the mandatory attendees, merged together.
+  private int[] mergedStarts = new int[INITIAL_CAPACITY];
+  private int[] mergedEnds = new int[INITIAL_CAPACITY];
+
+  // Open ranges, dictated by the mandatory attendees.
+  private int[] openStarts = new int[INITIAL_CAPACITY];
+  private int[] openEnds = new int[INITIAL_CAPACITY];
+
+  private final OptionalAttendanceOptimizer optimizer = new OptionalAttendanceOptimizer();
+
+  private int busyCount;
+  private int mergedCount;
+  private int openCount;
+
+  @Override
+  public Collection<TimeRange> query(Collection<Event> events, MeetingRequest request) {
+    collectBusyEvents(events, request.attendeeIds());
+    mergeBusyTimes();
+    findOpenRanges(request.getDuration());
+    return optimizer.optimize(toRanges(openStarts, openEnds, openCount), events, request);
+  }
+
+  /**
+   * Copies the times of every event with a mandatory attendee into the busy buffers.
+   */
+  private void collectBusyEvents(Collection<Event> events, int[] mandatory) {
+    busyCount = 0;
+    for (Event e : events) {
+      if (AttendeeSets.intersects(e.attendeeIds(), mandatory)) {
+        TimeRange when = e.getWhen();
+        ensureBusyCapacity(busyCount + 1);
+        busyStarts[busyCount] = when.start();
+        busyEnds[busyCount] = when.end();
+        busyCount++;
+      }
+    }
+  }
+
+  /**
+   * Sorts the busy events by start time and merges the overlapping ones together.
+   */
+  private void mergeBusyTimes() {
+    mergedCount = 0;
+    if (busyCount == 0) {
+      return;
+    }
+
+    // Pack the start into the high bits and the index into the low bits, so sorting the keys sorts
+    // the events by start time while keeping equal starts in their original order.
+    for (int i = 0; i < busyCount; i++) {
+      sortKeys[i] = ((long) busyStarts[i] << 32) | i;
+    }
+    Arrays.sort(sortKeys, 0, busyCount);
+
+    int lastStart = TimeRange.START_OF_DAY;
+    int lastEnd = TimeRange.START_OF_DAY;
+    for (int k = 0; k < busyCount; k++) {
+      int i = (int) sortKeys[k];
+      int start = busyStarts[i];
+      int end = busyEnds[i];
+      if (mergedCount == 0) {
+        lastStart = start;
+        lastEnd = end;
+        appendMerged(lastStart, lastEnd);
+      }
+
+      if (overlaps(lastStart, lastEnd, start, end)) {
+        lastEnd = Math.max(lastEnd, end);
+        mergedEnds[mergedCount - 1] = lastEnd;
+      } else {
+        lastStart = start;
+        lastEnd = end;
+        appendMerged(lastStart, lastEnd);
+      }
+    }
+  }
+
+  /**
+   * Fills the open buffers with the gaps between the merged busy times that can fit the meeting.
+   */
+  private void findOpenRanges(long duration) {
+    openCount = 0;
+    int start = TimeRange.START_OF_DAY;
+    for (int i = 0; i < mergedCount; i++) {
+      int end = mergedStarts[i];
+      if (end - start >= duration) {
+        appendOpen(start, end);
+      }
+      start = mergedEnds[i];
+    }
+    if (TimeRange.END_OF_DAY - start >= duration) {
+      appendOpen(start, TimeRange.END_OF_DAY + 1);
+    }
+  }
+
+  /**
+   * Creates a list of TimeRanges from the given ranges.
+   */
+  private static List<TimeRange> toRanges(int[] starts, int[] ends, int count) {
+    List<TimeRange> ranges = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      ranges.add(TimeRange.fromStartEnd(starts[i], ends[i], false));
+    }
+    return ranges;
+  }
+
+  /**
+   * Same as {@code TimeRange.contains(int)} for the range [start, end).
+   */
+  private static boolean contains(int start, int end, int point) {
+    return end - start > 0 && point >= start && point < end;
+  }
+
+  /**
+   * Same as {@code TimeRange.overlaps} for the ranges [aStart, aEnd) and [bStart, bEnd).
+   */
+  private static boolean overlaps(int aStart, int aEnd, int bStart, int bEnd) {
+    return contains(aStart, aEnd, bStart) || contains(bStart, bEnd, aStart);
+  }
+
+  private void appendMerged(int start, int end) {
+    if (mergedCount == mergedStarts.length) {
+      mergedStarts = Arrays.copyOf(mergedStarts, 2 * mergedCount);
+      mergedEnds = Arrays.copyOf(mergedEnds, 2 * mergedCount);
+    }
+    mergedStarts[mergedCount] = start;
+    mergedEnds[mergedCount] = end;
+    mergedCount++;
+  }
+
+  private void appendOpen(int start, int end) {
+    if (openCount == openStarts.length) {
+      openStarts = Arrays.copyOf(openStarts, 2 * openCount);
+      openEnds = Arrays.copyOf(openEnds, 2 * openCount);
+    }
+    openStarts[openCount] = start;
+    openEnds[openCount] = end;
+    openCount++;
+  }
+
+  private void ensureBusyCapacity(int capacity) {
+    if (capacity > busyStarts.length) {
+      int newLength = Math.max(capacity, 2 * busyStarts.length);
+      busyStarts = Arrays.copyOf(busyStarts, newLength);
+      busyEnds = Arrays.copyOf(busyEnds, newLength);
+      sortKeys = new long[newLength];
+    }
+  }
+}
@@ -0,0 +1,180 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A size-bounded cache of query answers. Entries are keyed by a canonical form of the request, so
+ * the order of the attendees doesn't matter, plus the version of the calendar the answer was
+ * computed from. Once the calendar changes, lookups use the new version and the old entries are
+ * never served again; they simply age out. The least recently used entry is evicted when the
+ * cache is full.
+ *
+ * <p>All methods are thread-safe.
+ */
+public final class QueryCache<V> {
+  private final int capacity;
+  private final Map<Key, V> entries;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param capacity The most entries the cache holds. Must be positive.
+   */
+  public QueryCache(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+
+    this.capacity = capacity;
+    this.entries = new LinkedHashMap<Key, V>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, V> eldest) {
+        return size() > QueryCache.this.capacity;
+      }
+    };
+  }
+
+  /**
+   * Returns the cached answer for the key, or null if there is none.
+   */
+  public V get(Key key) {
+    V value;
+    synchronized (entries) {
+      value = entries.get(key);
+    }
+    if (value == null) {
+      misses.incrementAndGet();
+    } else {
+      hits.incrementAndGet();
+    }
+    return value;
+  }
+
+  /**
+   * Caches the answer for the key, evicting the least recently used entry if the cache is full.
+   */
+  public void put(Key key, V value) {
+    if (value == null) {
+      throw new IllegalArgumentException("value cannot be null");
+    }
+    synchronized (entries) {
+      entries.put(key, value);
+    }
+  }
+
+  /**
+   * Returns how many entries the cache holds.
+   */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  /**
+   * Returns how many lookups found an answer.
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * Returns how many lookups found nothing.
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * The canonical form of a query: the sorted attendees, the sorted optional attendees, the
+   * sorted rooms, the duration, how many ranked slots were asked for, and the version of the
+   * calendar.
+   */
+  public static final class Key {
+    private final List<String> attendees;
+    private final List<String> optionalAttendees;
+    private final List<Room> rooms;
+    private final long duration;
+    private final int limit;
+    private final long version;
+
+    private Key(MeetingRequest request, int limit, long version) {
+      this.attendees = sorted(request.getAttendees());
+      this.optionalAttendees = sorted(request.getOptionalAttendees());
+      this.rooms = new ArrayList<>(request.getRooms());
+      Collections.sort(this.rooms, Room.ORDER_BY_CAPACITY);
+      this.duration = request.getDuration();
+      this.limit = limit;
+      this.version = version;
+    }
+
+    /**
+     * Creates the key of a request.
+     *
+     * @param request The request. Must be non-null.
+     * @param limit How many ranked slots were asked for, or 0 for every optimal slot.
+     * @param version The version of the calendar the request is answered from.
+     */
+    public static Key of(MeetingRequest request, int limit, long version) {
+      if (request == null) {
+        throw new IllegalArgumentException("request cannot be null");
+      }
+      return new Key(request, limit, version);
+    }
+
+    /**
+     * Returns the version of the calendar the request is answered from.
+     */
+    public long getVersion() {
+      return version;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) other;
+      return duration == key.duration && limit == key.limit && version == key.version
+          && attendees.equals(key.attendees) && optionalAttendees.equals(key.optionalAttendees)
+          && rooms.equals(key.rooms);
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = attendees.hashCode();
+      hash = 31 * hash + optionalAttendees.hashCode();
+      hash = 31 * hash + rooms.hashCode();
+      hash = 31 * hash + Long.hashCode(duration);
+      hash = 31 * hash + limit;
+      return 31 * hash + Long.hashCode(version);
+    }
+
+    private static List<String> sorted(Collection<String> names) {
+      return new ArrayList<>(new TreeSet<>(names));
+    }
+  }
+}
@@ -0,0 +1,220 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-phase latency histograms for the meeting queries, plus how many events each query looked at
+ * and how many slots it returned. The queries record into the default instance, which the
+ * {@code /metrics} servlet reports.
+ *
+ * <p>Metrics are off unless the {@code sps.metrics} system property is {@code true}, and can be
+ * switched on and off at any time. A phase is timed with {@code start} and {@code record}: while
+ * metrics are off, {@code start} returns {@code OFF} without reading the clock, and recording
+ * against {@code OFF} does nothing, so the disabled path costs one volatile read per query.
+ *
+ * <p>Queries that wait for a thread also record how many queries were queued ahead of them and
+ * how long they waited. Rejected queries are always counted, even while metrics are off.
+ *
+ * <p>All methods are thread-safe.
+ */
+public final class QueryMetrics {
+  /**
+   * The start time handed out while metrics are off.
+   */
+  public static final long OFF = Long.MIN_VALUE;
+
+  private static final QueryMetrics DEFAULT = new QueryMetrics(Boolean.getBoolean("sps.metrics"));
+
+  /**
+   * The timed phases of a query.
+   */
+  public enum Phase {
+    /** Merging the mandatory attendees' busy times. */
+    MERGE,
+    /** Finding the gaps between the busy times that fit the meeting. */
+    OPEN_RANGES,
+    /** Counting how many optional attendees are unavailable at every minute. */
+    UNAVAILABILITY,
+    /** Picking the open slots that the most optional attendees can make. */
+    OPTIMIZE,
+    /** The whole query. */
+    TOTAL
+  }
+
+  private final Map<Phase, Histogram> phases = new EnumMap<>(Phase.class);
+  private final Histogram events = new Histogram();
+  private final Histogram results = new Histogram();
+  private final Histogram queueDepth = new Histogram();
+  private final Histogram queueWait = new Histogram();
+  private final LongAdder rejected = new LongAdder();
+  private volatile boolean enabled;
+
+  /**
+   * Creates metrics with nothing recorded.
+   * @param enabled whether recording starts out switched on.
+   */
+  public QueryMetrics(boolean enabled) {
+    for (Phase phase : Phase.values()) {
+      phases.put(phase, new Histogram());
+    }
+    this.enabled = enabled;
+  }
+
+  /**
+   * Returns the metrics the queries record into.
+   */
+  public static QueryMetrics getDefault() {
+    return DEFAULT;
+  }
+
+  /**
+   * Returns whether recording is switched on.
+   */
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Switches recording on or off. What was recorded so far is kept.
+   */
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  /**
+   * Returns the current time in nanoseconds to time a phase from, or {@code OFF} if metrics are
+   * off.
+   */
+  public long start() {
+    return enabled ? System.nanoTime() : OFF;
+  }
+
+  /**
+   * Records a phase that started at {@code since}.
+   * @param phase the phase that just ended.
+   * @param since the time the phase started, from {@code start} or an earlier {@code record}.
+   * @return long the current time, to time the next phase from, or {@code OFF} if {@code since}
+   *     was.
+   */
+  public long record(Phase phase, long since) {
+    if (since == OFF) {
+      return OFF;
+    }
+    long now = System.nanoTime();
+    phases.get(phase).record(now - since);
+    return now;
+  }
+
+  /**
+   * Records a whole query that started at {@code since}, as the {@code TOTAL} phase.
+   * @param since the time the query started, from {@code start}.
+   * @param eventCount how many events the query looked at.
+   * @param resultCount how many slots the query returned.
+   */
+  public void recordQuery(long since, int eventCount, int resultCount) {
+    if (since == OFF) {
+      return;
+    }
+    record(Phase.TOTAL, since);
+    events.record(eventCount);
+    results.record(resultCount);
+  }
+
+  /**
+   * Records a query that was queued behind {@code depth} others, if metrics are on.
+   */
+  public void recordQueued(int depth) {
+    if (enabled) {
+      queueDepth.record(depth);
+    }
+  }
+
+  /**
+   * Records a queued query that got a thread, having been queued at {@code since}.
+   * @param since the time the query was queued, from {@code start}.
+   */
+  public void recordDequeued(long since) {
+    if (since != OFF) {
+      queueWait.record(System.nanoTime() - since);
+    }
+  }
+
+  /**
+   * Counts a query that was turned away because the queue was full.
+   */
+  public void recordRejected() {
+    rejected.increment();
+  }
+
+  /**
+   * Returns the latencies of a phase, in nanoseconds.
+   */
+  public Histogram getPhase(Phase phase) {
+    return phases.get(phase);
+  }
+
+  /**
+   * Returns how many events each query looked at.
+   */
+  public Histogram getEvents() {
+    return events;
+  }
+
+  /**
+   * Returns how many slots each query returned.
+   */
+  public Histogram getResults() {
+    return results;
+  }
+
+  /**
+   * Returns how many queries each queued query found ahead of it.
+   */
+  public Histogram getQueueDepth() {
+    return queueDepth;
+  }
+
+  /**
+   * Returns how long queued queries waited for a thread, in nanoseconds.
+   */
+  public Histogram getQueueWait() {
+    return queueWait;
+  }
+
+  /**
+   * Returns how many queries were turned away because the queue was full.
+   */
+  public long getRejected() {
+    return rejected.sum();
+  }
+
+  /**
+   * Forgets everything recorded so far.
+   */
+  public void reset() {
+    for (Histogram histogram : phases.values()) {
+      histogram.reset();
+    }
+    events.reset();
+    results.reset();
+    queueDepth.reset();
+    queueWait.reset();
+    rejected.reset();
+  }
+}
@@ -0,0 +1,86 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Comparator;
+
+/**
+ * A possible meeting time together with its score: how many of the request's optional attendees
+ * are free for the whole of it.
+ */
+public final class RankedSlot {
+  /**
+   * A comparator for sorting slots from best to worst: the most available optional attendees
+   * first, and the earliest start first among slots with the same score.
+   */
+  public static final Comparator<RankedSlot> ORDER_BY_SCORE = new Comparator<RankedSlot>() {
+    @Override
+    public int compare(RankedSlot a, RankedSlot b) {
+      int byScore = Integer.compare(b.availableOptional, a.availableOptional);
+      if (byScore != 0) {
+        return byScore;
+      }
+      return TimeRange.ORDER_BY_START.compare(a.when, b.when);
+    }
+  };
+
+  private final TimeRange when;
+  private final int availableOptional;
+
+  /**
+   * Creates a new slot.
+   *
+   * @param when The time of the slot. Must be non-null.
+   * @param availableOptional How many optional attendees are free for the whole slot.
+   */
+  public RankedSlot(TimeRange when, int availableOptional) {
+    if (when == null) {
+      throw new IllegalArgumentException("when cannot be null");
+    }
+
+    this.when = when;
+    this.availableOptional = availableOptional;
+  }
+
+  /**
+   * Returns the time of the slot.
+   */
+  public TimeRange getWhen() {
+    return when;
+  }
+
+  /**
+   * Returns how many optional attendees are free for the whole slot.
+   */
+  public int getAvailableOptional() {
+    return availableOptional;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof RankedSlot && when.equals(((RankedSlot) other).when)
+        && availableOptional == ((RankedSlot) other).availableOptional;
+  }
+
+  @Override
+  public int hashCode() {
+    return when.hashCode() ^ availableOptional;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("RankedSlot: %s, %d optional available", when, availableOptional);
+  }
+}
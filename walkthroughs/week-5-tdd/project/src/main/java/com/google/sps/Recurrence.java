@@ -0,0 +1,244 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.DayOfWeek;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * When a recurring event takes place: every day, or on some days of every week, starting on a
+ * first day and ending after a number of occurrences or on a last day, whichever comes first.
+ * Days can be left out as exceptions; like in iCalendar, a left-out day still counts towards the
+ * number of occurrences. Days are counted in days since the epoch.
+ *
+ * <p>Occurrences are never listed up front; {@code occursOn} and {@code nextOccurrence} work them
+ * out in constant time from the rule, so a series costs the same however long it runs.
+ */
+public final class Recurrence {
+  /**
+   * Returned by {@code nextOccurrence} when the series has no more occurrences.
+   */
+  public static final long NO_OCCURRENCE = Long.MIN_VALUE;
+
+  private static final int DAYS_PER_WEEK = 7;
+
+  private final long firstDay;
+  private final Set<DayOfWeek> weekdays;
+  private final int count;
+  private final long lastDay;
+  private final Set<Long> exceptions;
+
+  private Recurrence(Builder builder) {
+    this.firstDay = builder.firstDay;
+    this.weekdays = Collections.unmodifiableSet(EnumSet.copyOf(builder.weekdays));
+    this.count = builder.count;
+    this.lastDay = builder.lastDay;
+    this.exceptions = Collections.unmodifiableSet(new HashSet<>(builder.exceptions));
+  }
+
+  /**
+   * Starts a rule for an event that takes place every day from {@code firstDay} on.
+   */
+  public static Builder daily(long firstDay) {
+    return new Builder(firstDay, EnumSet.allOf(DayOfWeek.class));
+  }
+
+  /**
+   * Starts a rule for an event that takes place on the given days of every week, from
+   * {@code firstDay} on.
+   */
+  public static Builder weekly(long firstDay, DayOfWeek weekday, DayOfWeek... weekdays) {
+    return new Builder(firstDay, EnumSet.of(weekday, weekdays));
+  }
+
+  /**
+   * Returns a rule for an event that only takes place on the given day.
+   */
+  public static Recurrence once(long day) {
+    return daily(day).count(1).build();
+  }
+
+  /**
+   * Returns the first day the series may take place on.
+   */
+  public long getFirstDay() {
+    return firstDay;
+  }
+
+  /**
+   * Returns a read-only set of the days of the week the event takes place on.
+   */
+  public Set<DayOfWeek> getWeekdays() {
+    return weekdays;
+  }
+
+  /**
+   * Returns the number of occurrences, or {@code Integer.MAX_VALUE} if there is no limit.
+   */
+  public int getCount() {
+    return count;
+  }
+
+  /**
+   * Returns the last day the event may take place on, or {@code Long.MAX_VALUE} if there is none.
+   */
+  public long getLastDay() {
+    return lastDay;
+  }
+
+  /**
+   * Returns a read-only set of the days left out of the series.
+   */
+  public Set<Long> getExceptions() {
+    return exceptions;
+  }
+
+  /**
+   * Checks if the event takes place on the given day.
+   */
+  public boolean occursOn(long day) {
+    return isScheduled(day) && occurrencesBefore(day) < count && !exceptions.contains(day);
+  }
+
+  /**
+   * Returns the first day on or after {@code day} that the event takes place on, or
+   * {@code NO_OCCURRENCE} if there is none.
+   */
+  public long nextOccurrence(long day) {
+    long next = Math.max(day, firstDay);
+    while (next <= lastDay) {
+      if (!weekdays.contains(weekday(next))) {
+        next++;
+        continue;
+      }
+      if (occurrencesBefore(next) >= count) {
+        return NO_OCCURRENCE;
+      }
+      if (!exceptions.contains(next)) {
+        return next;
+      }
+      next++;
+    }
+    return NO_OCCURRENCE;
+  }
+
+  /**
+   * Checks if the given day is within the first and last days and on one of the weekdays, without
+   * looking at the count or the exceptions.
+   */
+  private boolean isScheduled(long day) {
+    return day >= firstDay && day <= lastDay && weekdays.contains(weekday(day));
+  }
+
+  /**
+   * Returns how many scheduled days there are from {@code firstDay} up to, but not including,
+   * {@code day}. Exceptions are counted too.
+   */
+  private long occurrencesBefore(long day) {
+    long weeks = (day - firstDay) / DAYS_PER_WEEK;
+    long occurrences = weeks * weekdays.size();
+    for (long d = firstDay + weeks * DAYS_PER_WEEK; d < day; d++) {
+      if (weekdays.contains(weekday(d))) {
+        occurrences++;
+      }
+    }
+    return occurrences;
+  }
+
+  /**
+   * Returns the day of the week of a day counted since the epoch, which was a Thursday.
+   */
+  static DayOfWeek weekday(long day) {
+    return DayOfWeek.THURSDAY.plus(Math.floorMod(day, (long) DAYS_PER_WEEK));
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof Recurrence)) {
+      return false;
+    }
+    Recurrence that = (Recurrence) other;
+    return firstDay == that.firstDay && weekdays.equals(that.weekdays) && count == that.count
+        && lastDay == that.lastDay && exceptions.equals(that.exceptions);
+  }
+
+  @Override
+  public int hashCode() {
+    return Long.hashCode(firstDay) ^ weekdays.hashCode() ^ count ^ Long.hashCode(lastDay)
+        ^ exceptions.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Recurrence: from day %d on %s, count %d, until day %d, except %s",
+        firstDay, weekdays, count, lastDay, exceptions);
+  }
+
+  /**
+   * Collects the limits and exceptions of a rule until {@code build} is called.
+   */
+  public static final class Builder {
+    private final long firstDay;
+    private final Set<DayOfWeek> weekdays;
+    private int count = Integer.MAX_VALUE;
+    private long lastDay = Long.MAX_VALUE;
+    private final Set<Long> exceptions = new HashSet<>();
+
+    private Builder(long firstDay, Set<DayOfWeek> weekdays) {
+      this.firstDay = firstDay;
+      this.weekdays = weekdays;
+    }
+
+    /**
+     * Ends the series after the given number of occurrences. Must be positive.
+     */
+    public Builder count(int count) {
+      if (count <= 0) {
+        throw new IllegalArgumentException("count must be positive");
+      }
+      this.count = count;
+      return this;
+    }
+
+    /**
+     * Ends the series on the given day, which is the last day it may take place on.
+     */
+    public Builder until(long lastDay) {
+      if (lastDay < firstDay) {
+        throw new IllegalArgumentException("lastDay cannot come before firstDay");
+      }
+      this.lastDay = lastDay;
+      return this;
+    }
+
+    /**
+     * Leaves the given day out of the series.
+     */
+    public Builder except(long day) {
+      exceptions.add(day);
+      return this;
+    }
+
+    /**
+     * Returns the rule.
+     */
+    public Recurrence build() {
+      return new Recurrence(this);
+    }
+  }
+}
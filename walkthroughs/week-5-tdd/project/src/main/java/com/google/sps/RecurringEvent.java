@@ -0,0 +1,76 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+/**
+ * An event that takes place again and again. The {@code Event} gives the title, the time of day
+ * and the attendees shared by every occurrence, and the {@code Recurrence} gives the days.
+ */
+public final class RecurringEvent {
+  private final Event event;
+  private final Recurrence recurrence;
+
+  /**
+   * Creates a new recurring event.
+   *
+   * @param event The title, time of day and attendees of every occurrence. Must be non-null.
+   * @param recurrence The days the event takes place on. Must be non-null.
+   */
+  public RecurringEvent(Event event, Recurrence recurrence) {
+    if (event == null) {
+      throw new IllegalArgumentException("event cannot be null");
+    }
+
+    if (recurrence == null) {
+      throw new IllegalArgumentException("recurrence cannot be null");
+    }
+
+    this.event = event;
+    this.recurrence = recurrence;
+  }
+
+  /**
+   * Returns the event every occurrence is a copy of.
+   */
+  public Event getEvent() {
+    return event;
+  }
+
+  /**
+   * Returns the days the event takes place on.
+   */
+  public Recurrence getRecurrence() {
+    return recurrence;
+  }
+
+  /**
+   * Returns when the occurrence on the given day takes place, in epoch minutes. The event must
+   * take place on that day.
+   */
+  public EpochRange occurrenceOn(long epochDay) {
+    return EpochRange.onDay(epochDay, event.getWhen());
+  }
+
+  @Override
+  public int hashCode() {
+    return event.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof RecurringEvent && event.equals(((RecurringEvent) other).event)
+        && recurrence.equals(((RecurringEvent) other).recurrence);
+  }
+}
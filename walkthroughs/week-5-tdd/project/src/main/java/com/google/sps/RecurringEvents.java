@@ -0,0 +1,182 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A set of recurring events, from which the events of any one day can be read as an
+ * {@code EventStore}. Occurrences are never stored: the store for a day asks every series whether
+ * it takes place that day as it is read, so memory only grows with the number of series and not
+ * with how long they run.
+ *
+ * <p>The series never change once added, so the stores of the days are thread-safe.
+ */
+public final class RecurringEvents {
+  private final List<RecurringEvent> series;
+  // The positions in {@code series} of every attendee's recurring events, ascending.
+  private final Map<String, List<Integer>> seriesByAttendee = new HashMap<>();
+
+  /**
+   * Creates the set of the given recurring events.
+   *
+   * @param series The recurring events. Must be non-null.
+   */
+  public RecurringEvents(Collection<RecurringEvent> series) {
+    if (series == null) {
+      throw new IllegalArgumentException("series cannot be null");
+    }
+
+    this.series = Collections.unmodifiableList(new ArrayList<>(series));
+    for (int i = 0; i < this.series.size(); i++) {
+      for (String attendee : this.series.get(i).getEvent().getAttendees()) {
+        List<Integer> attendeeSeries = seriesByAttendee.get(attendee);
+        if (attendeeSeries == null) {
+          attendeeSeries = new ArrayList<>();
+          seriesByAttendee.put(attendee, attendeeSeries);
+        }
+        attendeeSeries.add(i);
+      }
+    }
+  }
+
+  /**
+   * Returns a read-only list of the recurring events.
+   */
+  public List<RecurringEvent> getSeries() {
+    return series;
+  }
+
+  /**
+   * Returns the events of the given day. Nothing is expanded until the store is read.
+   */
+  public EventStore onDay(long epochDay) {
+    return new DayStore(epochDay);
+  }
+
+  /**
+   * Returns the events of the given day together with the one-off events in {@code oneOffs}, as a
+   * single store a query can read.
+   */
+  public EventStore onDay(long epochDay, EventStore oneOffs) {
+    if (oneOffs == null) {
+      throw new IllegalArgumentException("oneOffs cannot be null");
+    }
+    return new CompositeEventStore(oneOffs, new DayStore(epochDay));
+  }
+
+  /**
+   * The occurrences of every series on one day.
+   */
+  private final class DayStore implements EventStore {
+    private final long epochDay;
+
+    DayStore(long epochDay) {
+      this.epochDay = epochDay;
+    }
+
+    @Override
+    public Collection<Event> getEvents() {
+      return occurrences(series);
+    }
+
+    @Override
+    public int size() {
+      int size = 0;
+      for (RecurringEvent s : series) {
+        if (s.getRecurrence().occursOn(epochDay)) {
+          size++;
+        }
+      }
+      return size;
+    }
+
+    @Override
+    public Collection<Event> getEventsFor(Collection<String> attendees) {
+      return occurrences(seriesOf(attendees));
+    }
+
+    @Override
+    public List<TimeRange> getMergedBusyTimes(Collection<String> attendees) {
+      List<TimeRange> busy = new ArrayList<>();
+      for (Event e : occurrences(seriesOf(attendees))) {
+        if (e.getWhen().duration() > 0) {
+          busy.add(e.getWhen());
+        }
+      }
+      Collections.sort(busy, TimeRange.ORDER_BY_START);
+
+      List<TimeRange> merged = new ArrayList<>();
+      for (TimeRange range : busy) {
+        int last = merged.size() - 1;
+        if (last >= 0 && range.start() < merged.get(last).end()) {
+          TimeRange previous = merged.get(last);
+          merged.set(last, TimeRange.fromStartEnd(previous.start(),
+              Math.max(previous.end(), range.end()), false));
+        } else {
+          merged.add(range);
+        }
+      }
+      return merged;
+    }
+
+    /**
+     * The series never change, so the version is always 0.
+     */
+    @Override
+    public long getVersion() {
+      return 0;
+    }
+
+    /**
+     * Returns the series that at least one of the given attendees takes part in, once each and in
+     * the order they were given.
+     */
+    private Collection<RecurringEvent> seriesOf(Collection<String> attendees) {
+      Set<Integer> positions = new TreeSet<>();
+      for (String attendee : attendees) {
+        List<Integer> attendeeSeries = seriesByAttendee.get(attendee);
+        if (attendeeSeries != null) {
+          positions.addAll(attendeeSeries);
+        }
+      }
+      List<RecurringEvent> attendeeSeries = new ArrayList<>(positions.size());
+      for (int i : positions) {
+        attendeeSeries.add(series.get(i));
+      }
+      return attendeeSeries;
+    }
+
+    /**
+     * Returns the occurrences on this day of the given series.
+     */
+    private List<Event> occurrences(Collection<RecurringEvent> candidates) {
+      List<Event> events = new ArrayList<>();
+      for (RecurringEvent s : candidates) {
+        if (s.getRecurrence().occursOn(epochDay)) {
+          events.add(s.getEvent());
+        }
+      }
+      return events;
+    }
+  }
+}
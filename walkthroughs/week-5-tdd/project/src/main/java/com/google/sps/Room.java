@@ -0,0 +1,91 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Comparator;
+
+/**
+ * A bookable resource, such as a conference room, and how many people it seats. A room is booked
+ * by an event that lists its name among the attendees, so its busy times are indexed exactly like
+ * a person's.
+ */
+public final class Room {
+  /**
+   * A comparator for sorting rooms from the smallest to the largest, and by name among rooms of
+   * the same size, so the first room that fits a meeting is the tightest fit.
+   */
+  public static final Comparator<Room> ORDER_BY_CAPACITY = new Comparator<Room>() {
+    @Override
+    public int compare(Room a, Room b) {
+      int byCapacity = Integer.compare(a.capacity, b.capacity);
+      if (byCapacity != 0) {
+        return byCapacity;
+      }
+      return a.name.compareTo(b.name);
+    }
+  };
+
+  private final String name;
+  private final int capacity;
+
+  /**
+   * Creates a new room.
+   *
+   * @param name The name the room is booked under. Must be non-null.
+   * @param capacity How many people the room seats. Must not be negative.
+   */
+  public Room(String name, int capacity) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+
+    if (capacity < 0) {
+      throw new IllegalArgumentException("capacity cannot be negative");
+    }
+
+    this.name = name;
+    this.capacity = capacity;
+  }
+
+  /**
+   * Returns the name the room is booked under.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns how many people the room seats.
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof Room && name.equals(((Room) other).name)
+        && capacity == ((Room) other).capacity;
+  }
+
+  @Override
+  public int hashCode() {
+    return name.hashCode() ^ capacity;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("Room: %s (%d)", name, capacity);
+  }
+}
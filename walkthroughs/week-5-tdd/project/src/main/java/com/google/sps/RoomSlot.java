@@ -0,0 +1,89 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Comparator;
+
+/**
+ * A possible meeting time together with a room that is free for the whole of it.
+ */
+public final class RoomSlot {
+  /**
+   * A comparator for sorting slots by start time, and from the smallest room up among slots
+   * starting at the same time.
+   */
+  public static final Comparator<RoomSlot> ORDER_BY_START = new Comparator<RoomSlot>() {
+    @Override
+    public int compare(RoomSlot a, RoomSlot b) {
+      int byStart = TimeRange.ORDER_BY_START.compare(a.when, b.when);
+      if (byStart != 0) {
+        return byStart;
+      }
+      return Room.ORDER_BY_CAPACITY.compare(a.room, b.room);
+    }
+  };
+
+  private final TimeRange when;
+  private final Room room;
+
+  /**
+   * Creates a new slot.
+   *
+   * @param when The time of the slot. Must be non-null.
+   * @param room The room assigned to the slot. Must be non-null.
+   */
+  public RoomSlot(TimeRange when, Room room) {
+    if (when == null) {
+      throw new IllegalArgumentException("when cannot be null");
+    }
+
+    if (room == null) {
+      throw new IllegalArgumentException("room cannot be null");
+    }
+
+    this.when = when;
+    this.room = room;
+  }
+
+  /**
+   * Returns the time of the slot.
+   */
+  public TimeRange getWhen() {
+    return when;
+  }
+
+  /**
+   * Returns the room assigned to the slot.
+   */
+  public Room getRoom() {
+    return room;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof RoomSlot && when.equals(((RoomSlot) other).when)
+        && room.equals(((RoomSlot) other).room);
+  }
+
+  @Override
+  public int hashCode() {
+    return when.hashCode() ^ room.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("RoomSlot: %s in %s", when, room);
+  }
+}
@@ -0,0 +1,101 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+
+/**
+ * Visits the start and end points of a day of ranges in time order. Every endpoint lies within
+ * 0..1440, so instead of sorting them the sweep buckets them by minute into primitive arrays, a
+ * counting sort, and then walks the buckets in O(E + 1440) for E ranges.
+ *
+ * <p>Each range carries a weight, such as how many attendees it keeps busy. The visitor is called
+ * once per minute holding at least one endpoint, with the total weight starting and ending there,
+ * so it can keep a running count of how much is going on. {@code OptionalAttendanceOptimizer}
+ * counts the unavailable optional attendees of every query this way, and
+ * {@code FindMeetingQuery.getAllUnavailability} breaks the day into slots with it.
+ *
+ * <p>An instance keeps its buckets from one sweep to the next, so it is not thread-safe.
+ */
+public final class SweepLine {
+  private static final int TIMES = TimeRange.WHOLE_DAY.duration() + 1;
+
+  /**
+   * Receives the endpoints of a sweep.
+   */
+  public interface Visitor {
+    /**
+     * Called once for every minute holding an endpoint, in ascending order of time.
+     * @param time the minute of the day.
+     * @param started the total weight of the ranges starting at this minute.
+     * @param ended the total weight of the ranges ending at this minute.
+     */
+    void visit(int time, int started, int ended);
+  }
+
+  // How many endpoints fall on each minute, and the weights starting and ending there.
+  private final int[] endpoints = new int[TIMES];
+  private final int[] started = new int[TIMES];
+  private final int[] ended = new int[TIMES];
+  private int size;
+
+  /**
+   * Adds a range from {@code start} (inclusive) to {@code end} (exclusive).
+   * @param start the start of the range, within the day.
+   * @param end the end of the range, within the day and not before {@code start}.
+   * @param weight what the range adds to the running count while it lasts.
+   */
+  public void add(int start, int end, int weight) {
+    if (start < TimeRange.START_OF_DAY || end >= TIMES || end < start) {
+      throw new IllegalArgumentException("range must lie within the day");
+    }
+    endpoints[start]++;
+    endpoints[end]++;
+    started[start] += weight;
+    ended[end] += weight;
+    size++;
+  }
+
+  /**
+   * Returns how many ranges were added since the sweep was last cleared.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Removes every range, so the sweep can be reused.
+   */
+  public void clear() {
+    Arrays.fill(endpoints, 0);
+    Arrays.fill(started, 0);
+    Arrays.fill(ended, 0);
+    size = 0;
+  }
+
+  /**
+   * Calls the visitor for every minute holding an endpoint, in ascending order of time.
+   */
+  public void visit(Visitor visitor) {
+    if (size == 0) {
+      return;
+    }
+    for (int time = 0; time < TIMES; time++) {
+      if (endpoints[time] != 0) {
+        visitor.visit(time, started[time], ended[time]);
+      }
+    }
+  }
+}
@@ -0,0 +1,111 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Joins many attendees' busy timelines on the common fork-join pool. The timelines are read from
+ * a {@code BusyTimeSource} that keeps them from one query to the next, such as shared
+ * {@code BusyTimelines} or a {@code CalendarModel}, so a query only pays for the union itself:
+ * every task either merges a few timelines, or splits its attendees in two and unions the halves
+ * as they come back.
+ */
+public final class TimelineUnion {
+  // Below this many attendees, a task merges its timelines itself rather than splitting again.
+  private static final int LEAF_ATTENDEES = 8;
+
+  private TimelineUnion() {
+    // Disallow instances.
+  }
+
+  /**
+   * Returns the times at least one of the given attendees is busy, merged and in ascending order
+   * of start time.
+   * @param source where every attendee's own timeline is read from.
+   * @param attendees the attendees, possibly with duplicates.
+   * @return List<TimeRange> the same busy times as {@code source.getMergedBusyTimes(attendees)}.
+   */
+  public static List<TimeRange> union(BusyTimeSource source, Collection<String> attendees) {
+    List<String> distinct = new ArrayList<>(new HashSet<>(attendees));
+    return ForkJoinPool.commonPool().invoke(new UnionTask(source, distinct, 0, distinct.size()));
+  }
+
+  /**
+   * Joins two lists of merged busy times into one, walking both in order of start time and
+   * merging the overlapping ranges.
+   */
+  static List<TimeRange> union(List<TimeRange> a, List<TimeRange> b) {
+    List<TimeRange> merged = new ArrayList<>(a.size() + b.size());
+    int i = 0;
+    int j = 0;
+    while (i < a.size() || j < b.size()) {
+      TimeRange range;
+      if (j == b.size() || (i < a.size() && a.get(i).start() <= b.get(j).start())) {
+        range = a.get(i++);
+      } else {
+        range = b.get(j++);
+      }
+      int last = merged.size() - 1;
+      if (last >= 0 && merged.get(last).overlaps(range)) {
+        TimeRange previous = merged.get(last);
+        merged.set(last, TimeRange.fromStartEnd(previous.start(),
+            Math.max(previous.end(), range.end()), false));
+      } else {
+        merged.add(range);
+      }
+    }
+    return merged;
+  }
+
+  /**
+   * Merges the timelines of {@code attendees[from..to)}, splitting the attendees in two while
+   * there are enough of them to be worth another task.
+   */
+  private static final class UnionTask extends RecursiveTask<List<TimeRange>> {
+    private final BusyTimeSource source;
+    private final List<String> attendees;
+    private final int from;
+    private final int to;
+
+    UnionTask(BusyTimeSource source, List<String> attendees, int from, int to) {
+      this.source = source;
+      this.attendees = attendees;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected List<TimeRange> compute() {
+      if (to - from <= LEAF_ATTENDEES) {
+        List<TimeRange> merged = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+          merged = union(merged, source.getTimeline(attendees.get(i)));
+        }
+        return merged;
+      }
+      int mid = (from + to) >>> 1;
+      UnionTask left = new UnionTask(source, attendees, from, mid);
+      left.fork();
+      List<TimeRange> right = new UnionTask(source, attendees, mid, to).compute();
+      return union(left.join(), right);
+    }
+  }
+}
@@ -0,0 +1,155 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * When an attendee works: from a start to an end time of day, on some days of the week, in the
+ * attendee's own time zone. An end at or before the start means the hours run past midnight into
+ * the next day.
+ */
+public final class WorkingHours {
+  private static final long SECONDS_PER_MINUTE = 60;
+
+  private final ZoneId zone;
+  private final LocalTime start;
+  private final LocalTime end;
+  private final Set<DayOfWeek> workdays;
+
+  /**
+   * Creates new working hours.
+   *
+   * @param zone The attendee's time zone. Must be non-null.
+   * @param start The time of day work starts. Must be non-null.
+   * @param end The time of day work ends. Must be non-null.
+   * @param workdays The days of the week work starts on. Must be non-null.
+   */
+  public WorkingHours(ZoneId zone, LocalTime start, LocalTime end, Set<DayOfWeek> workdays) {
+    if (zone == null) {
+      throw new IllegalArgumentException("zone cannot be null");
+    }
+
+    if (start == null || end == null) {
+      throw new IllegalArgumentException("start and end cannot be null");
+    }
+
+    if (workdays == null) {
+      throw new IllegalArgumentException("workdays cannot be null");
+    }
+
+    this.zone = zone;
+    this.start = start;
+    this.end = end;
+    this.workdays = workdays.isEmpty() ? Collections.<DayOfWeek>emptySet()
+        : Collections.unmodifiableSet(EnumSet.copyOf(workdays));
+  }
+
+  /**
+   * Returns working hours from {@code start} to {@code end}, Monday to Friday.
+   */
+  public static WorkingHours weekdays(ZoneId zone, LocalTime start, LocalTime end) {
+    return new WorkingHours(zone, start, end, EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY));
+  }
+
+  /**
+   * Returns the attendee's time zone.
+   */
+  public ZoneId getZone() {
+    return zone;
+  }
+
+  /**
+   * Returns the time of day work starts.
+   */
+  public LocalTime getStart() {
+    return start;
+  }
+
+  /**
+   * Returns the time of day work ends.
+   */
+  public LocalTime getEnd() {
+    return end;
+  }
+
+  /**
+   * Returns a read-only set of the days of the week work starts on.
+   */
+  public Set<DayOfWeek> getWorkdays() {
+    return workdays;
+  }
+
+  /**
+   * Returns a bitmap of the minutes of a calendar day that fall within these working hours. The
+   * calendar day may be in another time zone, so the hours are shifted by the difference between
+   * the zones, including any daylight saving change on either side.
+   * @param dayStart the instant minute 0 of the calendar day starts at.
+   * @return long[] a {@code MinuteBitmap} of the working minutes.
+   */
+  public long[] workingMinutes(Instant dayStart) {
+    long[] working = MinuteBitmap.create();
+    // Zones are at most a day apart, so only the attendee's days around the calendar day matter.
+    LocalDate around = dayStart.atZone(zone).toLocalDate();
+    for (LocalDate date = around.minusDays(1); !date.isAfter(around.plusDays(1));
+        date = date.plusDays(1)) {
+      if (!workdays.contains(date.getDayOfWeek())) {
+        continue;
+      }
+      Instant workStart = date.atTime(start).atZone(zone).toInstant();
+      LocalDate endDate = end.isAfter(start) ? date : date.plusDays(1);
+      Instant workEnd = endDate.atTime(end).atZone(zone).toInstant();
+      MinuteBitmap.set(working, minutesSince(dayStart, workStart),
+          minutesSince(dayStart, workEnd));
+    }
+    return working;
+  }
+
+  /**
+   * Returns the whole minutes from {@code from} to {@code to}, clamped to a few days either way.
+   */
+  private static int minutesSince(Instant from, Instant to) {
+    long minutes = Math.floorDiv(to.getEpochSecond() - from.getEpochSecond(), SECONDS_PER_MINUTE);
+    long limit = 4L * MinuteBitmap.MINUTES;
+    return (int) Math.max(-limit, Math.min(limit, minutes));
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    if (!(other instanceof WorkingHours)) {
+      return false;
+    }
+    WorkingHours that = (WorkingHours) other;
+    return zone.equals(that.zone) && start.equals(that.start) && end.equals(that.end)
+        && workdays.equals(that.workdays);
+  }
+
+  @Override
+  public int hashCode() {
+    return zone.hashCode() ^ start.hashCode() ^ end.hashCode() ^ workdays.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("WorkingHours: %s-%s on %s in %s", start, end, workdays, zone);
+  }
+}
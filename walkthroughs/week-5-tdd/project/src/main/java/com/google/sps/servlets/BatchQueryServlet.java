@@ -0,0 +1,82 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.EventStore;
+import com.google.sps.Events;
+import com.google.sps.FindMeetingQuery;
+import com.google.sps.MeetingRequest;
+import com.google.sps.TimeRange;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Answers a whole array of meeting requests in one call. The requests read the busy timelines the
+ * calendar already keeps and are evaluated in parallel on the common fork-join pool. The answers
+ * come back in the same order as the requests. A batch may hold at most {@code MAX_BATCH_SIZE}
+ * requests, so one call can't keep the pool busy for long.
+ */
+@WebServlet("/batch-query")
+public class BatchQueryServlet extends HttpServlet {
+  /**
+   * The most requests one batch may hold.
+   */
+  public static final int MAX_BATCH_SIZE = 100;
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    // Convert the JSON to a list of MeetingRequests.
+    List<MeetingRequest> meetingRequests;
+    try {
+      meetingRequests = QueryJson.readRequests(request.getReader());
+    } catch (JsonParseException e) {
+      meetingRequests = null;
+    }
+    if (meetingRequests == null || meetingRequests.contains(null)) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected an array of requests.");
+      return;
+    }
+    if (meetingRequests.size() > MAX_BATCH_SIZE) {
+      response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE,
+          "A batch may hold at most " + MAX_BATCH_SIZE + " requests.");
+      return;
+    }
+
+    // Find the possible meeting times for every request, sharing the calendar's busy timelines.
+    EventStore store = Events.calendar;
+    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
+    List<Collection<TimeRange>> answers = meetingRequests.parallelStream()
+        .map(meetingRequest -> findMeetingQuery.query(store, meetingRequest))
+        .collect(Collectors.toList());
+
+    // Stream the times back as JSON, one array of ranges per request.
+    response.setContentType("application/json");
+    JsonWriter out = new JsonWriter(response.getWriter());
+    out.beginArray();
+    for (Collection<TimeRange> answer : answers) {
+      QueryJson.writeArray(out, QueryJson.TIME_RANGE, answer);
+    }
+    out.endArray();
+    out.flush();
+  }
+}
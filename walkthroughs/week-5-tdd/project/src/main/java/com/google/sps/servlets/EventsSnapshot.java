@@ -0,0 +1,128 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.EventStore;
+import com.google.gson.Gson;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The events of one version of a calendar, already encoded as JSON bytes, both plain and gzipped,
+ * along with a strong ETag for each encoding. Serving the events is then a single write of one of
+ * the byte arrays. A snapshot never changes; build a new one when the calendar does.
+ */
+public final class EventsSnapshot {
+  private static final String GZIP_SUFFIX = "-gzip";
+
+  private final long version;
+  private final byte[] identity;
+  private final byte[] gzip;
+  private final String tag;
+
+  private EventsSnapshot(long version, byte[] identity) {
+    this.version = version;
+    this.identity = identity;
+    this.gzip = compress(identity);
+    this.tag = digest(identity);
+  }
+
+  /**
+   * Encodes the current events of the store.
+   */
+  public static EventsSnapshot of(EventStore calendar) {
+    // Read the version before the events, so a snapshot is never labeled newer than its events.
+    long version = calendar.getVersion();
+    String json = new Gson().toJson(calendar.getEvents());
+    return new EventsSnapshot(version, json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Returns the version of the calendar the snapshot was taken from.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns the encoded events. The array is shared, so it must not be modified.
+   * @param gzipped whether to return the gzip encoding instead of the plain one.
+   */
+  public byte[] getBody(boolean gzipped) {
+    return gzipped ? gzip : identity;
+  }
+
+  /**
+   * Returns the strong ETag of one encoding, quotes included. The two encodings have different
+   * bytes, so they get different tags.
+   */
+  public String getETag(boolean gzipped) {
+    return "\"" + tag + (gzipped ? GZIP_SUFFIX : "") + "\"";
+  }
+
+  /**
+   * Returns whether an {@code If-None-Match} header names this snapshot, in either encoding.
+   * Like the HTTP spec asks for this header, weak tags compare equal to strong ones.
+   */
+  public boolean matches(String ifNoneMatch) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+    for (String candidate : ifNoneMatch.split(",")) {
+      candidate = candidate.trim();
+      if (candidate.equals("*")) {
+        return true;
+      }
+      if (candidate.startsWith("W/")) {
+        candidate = candidate.substring(2);
+      }
+      if (candidate.equals(getETag(false)) || candidate.equals(getETag(true))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static byte[] compress(byte[] bytes) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    } catch (IOException e) {
+      // Writing to memory doesn't fail.
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  private static String digest(byte[] bytes) {
+    MessageDigest sha256;
+    try {
+      sha256 = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new IllegalStateException(e);
+    }
+    StringBuilder hex = new StringBuilder();
+    for (byte b : sha256.digest(bytes)) {
+      hex.append(String.format("%02x", b));
+    }
+    return hex.toString();
+  }
+}
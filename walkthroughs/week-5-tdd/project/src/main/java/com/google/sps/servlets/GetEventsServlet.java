@@ -15,22 +15,75 @@
 package com.google.sps.servlets;
 
 import com.google.sps.Events;
-import com.google.gson.Gson;
 import java.io.IOException;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+/**
+ * Serves every event of the calendar as JSON. The JSON is encoded once per calendar version into
+ * an {@code EventsSnapshot}, and clients that already hold the current version get a 304.
+ */
 @WebServlet("/get-events")
 public class GetEventsServlet extends HttpServlet {
+  private volatile EventsSnapshot snapshot;
+
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
-    String jsonResponse = gson.toJson(Events.events);
+    EventsSnapshot current = getSnapshot();
+    boolean gzipped = acceptsGzip(request.getHeader("Accept-Encoding"));
+
+    response.setHeader("ETag", current.getETag(gzipped));
+    response.setHeader("Vary", "Accept-Encoding");
+    if (current.matches(request.getHeader("If-None-Match"))) {
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      return;
+    }
 
     // Send the JSON back as the response
+    byte[] body = current.getBody(gzipped);
     response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    response.setCharacterEncoding("UTF-8");
+    if (gzipped) {
+      response.setHeader("Content-Encoding", "gzip");
+    }
+    response.setContentLength(body.length);
+    response.getOutputStream().write(body);
+  }
+
+  /**
+   * Returns the snapshot of the current calendar, encoding a new one if the calendar changed.
+   */
+  private EventsSnapshot getSnapshot() {
+    EventsSnapshot current = snapshot;
+    if (current == null || current.getVersion() != Events.calendar.getVersion()) {
+      // Two threads may both rebuild after a change; they encode the same events.
+      current = EventsSnapshot.of(Events.calendar);
+      snapshot = current;
+    }
+    return current;
+  }
+
+  /**
+   * Returns whether an {@code Accept-Encoding} header allows gzip.
+   */
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.trim().split(";");
+      if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+        continue;
+      }
+      for (int i = 1; i < parts.length; i++) {
+        if (parts[i].trim().replace(" ", "").matches("q=0(\\.0*)?")) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return false;
   }
 }
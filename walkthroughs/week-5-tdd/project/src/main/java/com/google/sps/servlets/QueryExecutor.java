@@ -0,0 +1,130 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.QueryMetrics;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A fixed pool of daemon threads with a bounded queue, for running queries off the container's
+ * request threads. When every thread is busy and the queue is full, a new query is turned away at
+ * once instead of waiting, so the caller can answer 503 straight away. How deep the queue was and
+ * how long each query waited in it are recorded into {@code QueryMetrics.getDefault()}.
+ *
+ * <p>All methods are thread-safe.
+ */
+public final class QueryExecutor {
+  private final ThreadPoolExecutor executor;
+
+  /**
+   * Creates an executor and starts its threads.
+   *
+   * @param name The prefix of the threads' names. Must be non-null.
+   * @param threads How many queries run at once. Must be positive.
+   * @param queueCapacity How many queries may wait for a thread. Must be positive.
+   */
+  public QueryExecutor(String name, int threads, int queueCapacity) {
+    if (name == null) {
+      throw new IllegalArgumentException("name cannot be null");
+    }
+    if (threads < 1) {
+      throw new IllegalArgumentException("threads must be positive");
+    }
+    if (queueCapacity < 1) {
+      throw new IllegalArgumentException("queueCapacity must be positive");
+    }
+
+    AtomicInteger count = new AtomicInteger();
+    ThreadFactory factory = task -> {
+      Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<Runnable>(queueCapacity), factory);
+    this.executor.prestartAllCoreThreads();
+  }
+
+  /**
+   * Queues the task to run on one of the threads. Cancelling the returned future takes a task
+   * that is still queued off the queue, freeing its slot at once, and interrupts a task that is
+   * already running.
+   * @return Future<?> the pending task, or null if the queue is full or the executor was shut
+   *     down, in which case the task will never run.
+   */
+  public Future<?> submit(Runnable task) {
+    QueryMetrics metrics = QueryMetrics.getDefault();
+    long queued = metrics.start();
+    metrics.recordQueued(executor.getQueue().size());
+    QueuedTask future = new QueuedTask(() -> {
+      metrics.recordDequeued(queued);
+      task.run();
+    });
+    try {
+      executor.execute(future);
+      return future;
+    } catch (RejectedExecutionException e) {
+      metrics.recordRejected();
+      return null;
+    }
+  }
+
+  /**
+   * Returns how many tasks are waiting for a thread.
+   */
+  public int getQueueDepth() {
+    return executor.getQueue().size();
+  }
+
+  /**
+   * Returns how many tasks are running.
+   */
+  public int getActiveCount() {
+    return executor.getActiveCount();
+  }
+
+  /**
+   * Stops taking tasks. Tasks already queued still run.
+   */
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  /**
+   * A queued task that leaves the queue when it is cancelled, instead of holding its slot until
+   * a thread takes it and finds it cancelled.
+   */
+  private final class QueuedTask extends FutureTask<Void> {
+    QueuedTask(Runnable task) {
+      super(task, null);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      boolean cancelled = super.cancel(mayInterruptIfRunning);
+      if (cancelled) {
+        executor.remove(this);
+      }
+      return cancelled;
+    }
+  }
+}
@@ -0,0 +1,448 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.Histogram;
+import com.google.sps.MeetingRequest;
+import com.google.sps.QueryMetrics;
+import com.google.sps.RankedSlot;
+import com.google.sps.Room;
+import com.google.sps.RoomSlot;
+import com.google.sps.TimeRange;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Streaming JSON codec for the query servlets. The adapters read and write the same JSON as
+ * {@code new Gson()} does for these classes, but token by token through {@code JsonReader} and
+ * {@code JsonWriter}: there is no reflection, and answers go straight to the response writer
+ * instead of being built up in one big String first.
+ */
+public final class QueryJson {
+  /**
+   * Reads and writes a room as {@code {"name": "Room 1", "capacity": 8}}.
+   */
+  public static final TypeAdapter<Room> ROOM = new TypeAdapter<Room>() {
+    @Override
+    public Room read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+
+      String name = null;
+      int capacity = 0;
+      in.beginObject();
+      while (in.hasNext()) {
+        String field = in.nextName();
+        if (field.equals("name")) {
+          name = in.nextString();
+        } else if (field.equals("capacity")) {
+          capacity = in.nextInt();
+        } else {
+          in.skipValue();
+        }
+      }
+      in.endObject();
+      if (name == null || capacity < 0) {
+        throw new IllegalStateException("Expected a room with a name and a capacity");
+      }
+      return new Room(name, capacity);
+    }
+
+    @Override
+    public void write(JsonWriter out, Room room) throws IOException {
+      if (room == null) {
+        out.nullValue();
+        return;
+      }
+      out.beginObject();
+      out.name("name").value(room.getName());
+      out.name("capacity").value(room.getCapacity());
+      out.endObject();
+    }
+  };
+
+  /**
+   * Reads a request such as {@code {"duration": 30, "attendees": ["Ava"]}}. The duration may be
+   * a number or a numeric string, and {@code optional_attendees} and {@code rooms} may be left
+   * out.
+   */
+  public static final TypeAdapter<MeetingRequest> MEETING_REQUEST =
+      new TypeAdapter<MeetingRequest>() {
+    @Override
+    public MeetingRequest read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+
+      List<String> attendees = new ArrayList<>();
+      List<String> optionalAttendees = new ArrayList<>();
+      List<Room> rooms = new ArrayList<>();
+      long duration = 0;
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        if (in.peek() == JsonToken.NULL) {
+          in.nextNull();
+        } else if (name.equals("attendees")) {
+          readNames(in, attendees);
+        } else if (name.equals("optional_attendees")) {
+          readNames(in, optionalAttendees);
+        } else if (name.equals("rooms")) {
+          readRooms(in, rooms);
+        } else if (name.equals("duration")) {
+          duration = in.nextLong();
+        } else {
+          in.skipValue();
+        }
+      }
+      in.endObject();
+
+      MeetingRequest request = new MeetingRequest(attendees, duration);
+      for (String attendee : optionalAttendees) {
+        request.addOptionalAttendee(attendee);
+      }
+      for (Room room : rooms) {
+        request.addRoom(room);
+      }
+      return request;
+    }
+
+    @Override
+    public void write(JsonWriter out, MeetingRequest request) throws IOException {
+      if (request == null) {
+        out.nullValue();
+        return;
+      }
+      out.beginObject();
+      out.name("attendees");
+      writeNames(out, request.getAttendees());
+      out.name("optional_attendees");
+      writeNames(out, request.getOptionalAttendees());
+      out.name("rooms");
+      writeArray(out, ROOM, request.getRooms());
+      out.name("duration").value(request.getDuration());
+      out.endObject();
+    }
+  };
+
+  /**
+   * Reads and writes a range as {@code {"start": 480, "duration": 30}}.
+   */
+  public static final TypeAdapter<TimeRange> TIME_RANGE = new TypeAdapter<TimeRange>() {
+    @Override
+    public TimeRange read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+
+      int start = 0;
+      int duration = 0;
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        if (name.equals("start")) {
+          start = in.nextInt();
+        } else if (name.equals("duration")) {
+          duration = in.nextInt();
+        } else {
+          in.skipValue();
+        }
+      }
+      in.endObject();
+      return TimeRange.fromStartDuration(start, duration);
+    }
+
+    @Override
+    public void write(JsonWriter out, TimeRange range) throws IOException {
+      if (range == null) {
+        out.nullValue();
+        return;
+      }
+      out.beginObject();
+      out.name("start").value(range.start());
+      out.name("duration").value(range.duration());
+      out.endObject();
+    }
+  };
+
+  /**
+   * Writes a slot as {@code {"when": {"start": 480, "duration": 30}, "availableOptional": 2}}.
+   */
+  public static final TypeAdapter<RankedSlot> RANKED_SLOT = new TypeAdapter<RankedSlot>() {
+    @Override
+    public RankedSlot read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+
+      TimeRange when = null;
+      int availableOptional = 0;
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        if (name.equals("when")) {
+          when = TIME_RANGE.read(in);
+        } else if (name.equals("availableOptional")) {
+          availableOptional = in.nextInt();
+        } else {
+          in.skipValue();
+        }
+      }
+      in.endObject();
+      return new RankedSlot(when, availableOptional);
+    }
+
+    @Override
+    public void write(JsonWriter out, RankedSlot slot) throws IOException {
+      if (slot == null) {
+        out.nullValue();
+        return;
+      }
+      out.beginObject();
+      out.name("when");
+      TIME_RANGE.write(out, slot.getWhen());
+      out.name("availableOptional").value(slot.getAvailableOptional());
+      out.endObject();
+    }
+  };
+
+  /**
+   * Writes a slot as {@code {"when": {"start": 480, "duration": 30}, "room": {"name": "Room 1",
+   * "capacity": 8}}}.
+   */
+  public static final TypeAdapter<RoomSlot> ROOM_SLOT = new TypeAdapter<RoomSlot>() {
+    @Override
+    public RoomSlot read(JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+
+      TimeRange when = null;
+      Room room = null;
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        if (name.equals("when")) {
+          when = TIME_RANGE.read(in);
+        } else if (name.equals("room")) {
+          room = ROOM.read(in);
+        } else {
+          in.skipValue();
+        }
+      }
+      in.endObject();
+      return new RoomSlot(when, room);
+    }
+
+    @Override
+    public void write(JsonWriter out, RoomSlot slot) throws IOException {
+      if (slot == null) {
+        out.nullValue();
+        return;
+      }
+      out.beginObject();
+      out.name("when");
+      TIME_RANGE.write(out, slot.getWhen());
+      out.name("room");
+      ROOM.write(out, slot.getRoom());
+      out.endObject();
+    }
+  };
+
+  private QueryJson() {
+    // Disallow instances.
+  }
+
+  /**
+   * Reads one meeting request.
+   * @return MeetingRequest the request, or null if the JSON is null or empty.
+   * @throws JsonSyntaxException if the JSON is not a valid request.
+   */
+  public static MeetingRequest readRequest(Reader reader) throws IOException {
+    JsonReader in = newReader(reader);
+    try {
+      if (isEmpty(in)) {
+        return null;
+      }
+      return MEETING_REQUEST.read(in);
+    } catch (MalformedJsonException | EOFException | IllegalStateException
+        | NumberFormatException e) {
+      throw new JsonSyntaxException(e);
+    }
+  }
+
+  /**
+   * Reads an array of meeting requests.
+   * @return List<MeetingRequest> the requests, or null if the JSON is null or empty.
+   * @throws JsonSyntaxException if the JSON is not a valid array of requests.
+   */
+  public static List<MeetingRequest> readRequests(Reader reader) throws IOException {
+    JsonReader in = newReader(reader);
+    try {
+      if (isEmpty(in)) {
+        return null;
+      }
+      List<MeetingRequest> requests = new ArrayList<>();
+      in.beginArray();
+      while (in.hasNext()) {
+        requests.add(MEETING_REQUEST.read(in));
+      }
+      in.endArray();
+      return requests;
+    } catch (MalformedJsonException | EOFException | IllegalStateException
+        | NumberFormatException e) {
+      throw new JsonSyntaxException(e);
+    }
+  }
+
+  /**
+   * Writes the values as a JSON array, one at a time.
+   */
+  public static <T> void writeArray(JsonWriter out, TypeAdapter<T> adapter,
+      Collection<? extends T> values) throws IOException {
+    out.beginArray();
+    for (T value : values) {
+      adapter.write(out, value);
+    }
+    out.endArray();
+  }
+
+  /**
+   * Writes the values as a JSON array to the writer and flushes it.
+   */
+  public static <T> void writeArray(Writer writer, TypeAdapter<T> adapter,
+      Collection<? extends T> values) throws IOException {
+    JsonWriter out = new JsonWriter(writer);
+    writeArray(out, adapter, values);
+    out.flush();
+  }
+
+  /**
+   * Writes the metrics to the writer and flushes it, as
+   * {@code {"enabled": true, "phases": {"MERGE": {...}, ...}, "events": {...}, "results": {...},
+   * "queueDepth": {...}, "queueWait": {...}, "rejected": 0}}. Every histogram is written as its
+   * count, sum, max and 50th, 90th and 99th percentiles; the phases and the queue wait are in
+   * nanoseconds.
+   */
+  public static void writeMetrics(Writer writer, QueryMetrics metrics) throws IOException {
+    JsonWriter out = new JsonWriter(writer);
+    out.beginObject();
+    out.name("enabled").value(metrics.isEnabled());
+    out.name("phases");
+    out.beginObject();
+    for (QueryMetrics.Phase phase : QueryMetrics.Phase.values()) {
+      out.name(phase.name());
+      writeHistogram(out, metrics.getPhase(phase));
+    }
+    out.endObject();
+    out.name("events");
+    writeHistogram(out, metrics.getEvents());
+    out.name("results");
+    writeHistogram(out, metrics.getResults());
+    out.name("queueDepth");
+    writeHistogram(out, metrics.getQueueDepth());
+    out.name("queueWait");
+    writeHistogram(out, metrics.getQueueWait());
+    out.name("rejected").value(metrics.getRejected());
+    out.endObject();
+    out.flush();
+  }
+
+  private static void writeHistogram(JsonWriter out, Histogram histogram)
+      throws IOException {
+    out.beginObject();
+    out.name("count").value(histogram.getCount());
+    out.name("sum").value(histogram.getSum());
+    out.name("max").value(histogram.getMax());
+    out.name("p50").value(histogram.getPercentile(50));
+    out.name("p90").value(histogram.getPercentile(90));
+    out.name("p99").value(histogram.getPercentile(99));
+    out.endObject();
+  }
+
+  /**
+   * Creates a reader that is as lenient as {@code Gson.fromJson}.
+   */
+  private static JsonReader newReader(Reader reader) {
+    JsonReader in = new JsonReader(reader);
+    in.setLenient(true);
+    return in;
+  }
+
+  /**
+   * Returns true if the document holds nothing at all, or only a null.
+   */
+  private static boolean isEmpty(JsonReader in) throws IOException {
+    JsonToken token;
+    try {
+      token = in.peek();
+    } catch (EOFException e) {
+      return true;
+    }
+    if (token == JsonToken.NULL) {
+      in.nextNull();
+      return true;
+    }
+    return false;
+  }
+
+  private static void readNames(JsonReader in, Collection<String> names) throws IOException {
+    in.beginArray();
+    while (in.hasNext()) {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+      } else {
+        names.add(in.nextString());
+      }
+    }
+    in.endArray();
+  }
+
+  private static void readRooms(JsonReader in, Collection<Room> rooms) throws IOException {
+    in.beginArray();
+    while (in.hasNext()) {
+      Room room = ROOM.read(in);
+      if (room != null) {
+        rooms.add(room);
+      }
+    }
+    in.endArray();
+  }
+
+  private static void writeNames(JsonWriter out, Collection<String> names) throws IOException {
+    out.beginArray();
+    for (String name : names) {
+      out.value(name);
+    }
+    out.endArray();
+  }
+}
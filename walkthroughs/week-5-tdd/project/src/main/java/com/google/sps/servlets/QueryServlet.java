@@ -14,38 +14,374 @@
 
 package com.google.sps.servlets;
 
+import com.google.sps.AvailabilityMasks;
+import com.google.sps.BusyTimelines;
+import com.google.sps.CalendarIndex;
+import com.google.sps.EventStore;
 import com.google.sps.Events;
 import com.google.sps.FindMeetingQuery;
 import com.google.sps.MeetingRequest;
+import com.google.sps.QueryCache;
+import com.google.sps.RankedSlot;
+import com.google.sps.RoomSlot;
 import com.google.sps.TimeRange;
-import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import java.io.IOException;
-import java.util.Arrays;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-@WebServlet("/query")
+/**
+ * Answers a meeting request. Answers are cached by request and calendar version, so asking the
+ * same question again while the calendar hasn't changed doesn't run the query again. Requests and
+ * answers are streamed through {@code QueryJson}. A request with rooms is answered with slots
+ * that each come with a free room.
+ *
+ * <p>Cached answers are sent straight away. Any other query runs asynchronously on a bounded
+ * {@code QueryExecutor}, so the container's request threads are never tied up by a slow query.
+ * Large requests, with many attendees or with rooms, get an executor of their own so they can't
+ * hold up the small ones. A query that can't be queued is answered 503 at once, and so is one
+ * that misses its deadline: {@code ?deadline} milliseconds, {@code DEFAULT_DEADLINE_MILLIS} if
+ * left out. A query that misses its deadline is cancelled: it is taken off the queue, or, if it
+ * is already running, interrupted so that it stops between two phases.
+ */
+@WebServlet(urlPatterns = "/query", asyncSupported = true)
 public class QueryServlet extends HttpServlet {
+  /**
+   * How long a query may take, in milliseconds, unless the request asks for another deadline.
+   */
+  public static final long DEFAULT_DEADLINE_MILLIS = 10000;
+
+  /**
+   * The longest deadline a request may ask for, in milliseconds.
+   */
+  public static final long MAX_DEADLINE_MILLIS = 60000;
+
+  private static final int CACHE_CAPACITY = 1000;
+  // From this many attendees up, or with rooms, a request runs on the large query executor.
+  private static final int LARGE_QUERY_ATTENDEES = BusyTimelines.DEFAULT_PARALLEL_THRESHOLD;
+  private static final int SMALL_QUERY_THREADS = Runtime.getRuntime().availableProcessors();
+  private static final int LARGE_QUERY_THREADS =
+      Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+  private static final int QUEUE_CAPACITY = 100;
+
+  private final QueryCache<Collection<TimeRange>> answers = new QueryCache<>(CACHE_CAPACITY);
+  private final QueryCache<List<RankedSlot>> rankings = new QueryCache<>(CACHE_CAPACITY);
+  private final QueryCache<List<RoomSlot>> roomSlots = new QueryCache<>(CACHE_CAPACITY);
+  // The index room queries read, and the version of the calendar it was built from.
+  private volatile VersionedIndex roomIndex;
+  private final QueryExecutor smallQueries =
+      new QueryExecutor("small-query", SMALL_QUERY_THREADS, QUEUE_CAPACITY);
+  private final QueryExecutor largeQueries =
+      new QueryExecutor("large-query", LARGE_QUERY_THREADS, QUEUE_CAPACITY);
+
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    Gson gson = new Gson();
-
     // Convert the JSON to an instance of MeetingRequest.
-    MeetingRequest meetingRequest = gson.fromJson(request.getReader(), MeetingRequest.class);
+    MeetingRequest meetingRequest;
+    try {
+      meetingRequest = QueryJson.readRequest(request.getReader());
+    } catch (JsonParseException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected a meeting request.");
+      return;
+    }
+    if (meetingRequest == null) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Expected a meeting request.");
+      return;
+    }
 
-    // Find the possible meeting times.
-    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
-    Collection<TimeRange> answer =
-        findMeetingQuery.query(Arrays.asList(Events.events), meetingRequest);
+    // With a limit, only the best few meeting times are ranked and returned.
+    int limit = 0;
+    String limitParameter = request.getParameter("limit");
+    if (limitParameter != null) {
+      try {
+        limit = Integer.parseInt(limitParameter);
+      } catch (NumberFormatException e) {
+        limit = 0;
+      }
+      if (limit < 1) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, "limit must be a positive number.");
+        return;
+      }
+      if (!meetingRequest.getRooms().isEmpty()) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+            "limit cannot be combined with rooms.");
+        return;
+      }
+    }
+
+    long deadline = DEFAULT_DEADLINE_MILLIS;
+    String deadlineParameter = request.getParameter("deadline");
+    if (deadlineParameter != null) {
+      try {
+        deadline = Long.parseLong(deadlineParameter);
+      } catch (NumberFormatException e) {
+        deadline = 0;
+      }
+      if (deadline < 1 || deadline > MAX_DEADLINE_MILLIS) {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+            "deadline must be between 1 and " + MAX_DEADLINE_MILLIS + " milliseconds.");
+        return;
+      }
+    }
+
+    // Read the version before the events, so an answer is never cached under a newer version
+    // than the events it was computed from.
+    EventStore store = Events.calendar;
+    QueryCache.Key key = QueryCache.Key.of(meetingRequest, limit, store.getVersion());
+    if (writeCached(key, meetingRequest, limit, response)) {
+      return;
+    }
+
+    AsyncContext async = request.startAsync();
+    async.setTimeout(deadline);
+    PendingQuery pending = new PendingQuery(async, store, key, meetingRequest, limit);
+    async.addListener(pending);
+    Future<?> future = executorFor(meetingRequest).submit(pending);
+    if (future == null) {
+      pending.fail(HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+          "Too many queries are waiting; try again later.");
+    } else {
+      pending.submitted(future);
+    }
+  }
 
-    // Convert the times to JSON
-    String jsonResponse = gson.toJson(answer);
+  @Override
+  public void destroy() {
+    smallQueries.shutdown();
+    largeQueries.shutdown();
+  }
+
+  /**
+   * Returns the executor a request runs on: the large one for requests with many attendees or
+   * with rooms, and the small one for the rest.
+   */
+  private QueryExecutor executorFor(MeetingRequest request) {
+    int attendees = request.getAttendees().size() + request.getOptionalAttendees().size();
+    if (attendees >= LARGE_QUERY_ATTENDEES || !request.getRooms().isEmpty()) {
+      return largeQueries;
+    }
+    return smallQueries;
+  }
 
-    // Send the JSON back as the response
+  /**
+   * Sends the cached answer for the key, if there is one.
+   * @return boolean true if the answer was sent.
+   */
+  private boolean writeCached(QueryCache.Key key, MeetingRequest request, int limit,
+      HttpServletResponse response) throws IOException {
+    Object answer;
+    if (!request.getRooms().isEmpty()) {
+      answer = roomSlots.get(key);
+    } else if (limit == 0) {
+      answer = answers.get(key);
+    } else {
+      answer = rankings.get(key);
+    }
+    if (answer == null) {
+      return false;
+    }
     response.setContentType("application/json");
-    response.getWriter().println(jsonResponse);
+    write(answer, request, limit, response.getWriter());
+    return true;
+  }
+
+  /**
+   * Finds the possible meeting times and caches them.
+   * @return Object the room slots, the time ranges or the ranked slots, depending on the request.
+   */
+  private Object compute(EventStore store, QueryCache.Key key, MeetingRequest request,
+      int limit) {
+    FindMeetingQuery findMeetingQuery = new FindMeetingQuery();
+    if (!request.getRooms().isEmpty()) {
+      // Rooms are booked like attendees, so one index over the events covers people and rooms.
+      List<RoomSlot> slots = findMeetingQuery.queryRooms(
+          index(store, key.getVersion()), AvailabilityMasks.NONE, request);
+      roomSlots.put(key, slots);
+      return slots;
+    } else if (limit == 0) {
+      Collection<TimeRange> answer = findMeetingQuery.query(store, request);
+      answers.put(key, answer);
+      return answer;
+    } else {
+      List<RankedSlot> ranking = findMeetingQuery.rank(store, request, limit);
+      rankings.put(key, ranking);
+      return ranking;
+    }
+  }
+
+  /**
+   * Returns the index over the events of the store at the given version. Like the cached answers,
+   * the index is only built again once the calendar has changed.
+   */
+  private CalendarIndex index(EventStore store, long version) {
+    VersionedIndex current = roomIndex;
+    if (current == null || current.version != version) {
+      current = new VersionedIndex(new CalendarIndex(store.getEvents()), version);
+      roomIndex = current;
+    }
+    return current.index;
+  }
+
+  /**
+   * Sends the possible meeting times back as JSON.
+   */
+  @SuppressWarnings("unchecked")
+  private static void write(Object answer, MeetingRequest request, int limit, Writer writer)
+      throws IOException {
+    if (!request.getRooms().isEmpty()) {
+      QueryJson.writeArray(writer, QueryJson.ROOM_SLOT, (List<RoomSlot>) answer);
+    } else if (limit == 0) {
+      QueryJson.writeArray(writer, QueryJson.TIME_RANGE, (Collection<TimeRange>) answer);
+    } else {
+      QueryJson.writeArray(writer, QueryJson.RANKED_SLOT, (List<RankedSlot>) answer);
+    }
+  }
+
+  /**
+   * A query waiting for its answer. Only one of the query, its deadline and a rejection gets to
+   * answer; whichever comes later finds the response taken and does nothing, so a query that
+   * finishes after its deadline drops its answer. The query renders its answer before it claims
+   * the response, so once it has, all that is left is one write and completing the response.
+   */
+  private final class PendingQuery implements Runnable, AsyncListener {
+    private final AsyncContext async;
+    private final EventStore store;
+    private final QueryCache.Key key;
+    private final MeetingRequest request;
+    private final int limit;
+    private final AtomicBoolean answered = new AtomicBoolean();
+    private volatile Future<?> future;
+    private volatile boolean cancelled;
+
+    PendingQuery(AsyncContext async, EventStore store, QueryCache.Key key,
+        MeetingRequest request, int limit) {
+      this.async = async;
+      this.store = store;
+      this.key = key;
+      this.request = request;
+      this.limit = limit;
+    }
+
+    @Override
+    public void run() {
+      // A query that waited out its deadline in the queue has already been answered.
+      if (answered.get()) {
+        return;
+      }
+      String json;
+      try {
+        StringWriter writer = new StringWriter();
+        write(compute(store, key, request, limit), request, limit, writer);
+        json = writer.toString();
+      } catch (CancellationException e) {
+        // The query missed its deadline, which has been answered already.
+        return;
+      } catch (IOException | RuntimeException e) {
+        fail(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "The query failed.");
+        return;
+      }
+      if (answered.compareAndSet(false, true)) {
+        try {
+          HttpServletResponse response = (HttpServletResponse) async.getResponse();
+          response.setContentType("application/json");
+          response.getWriter().write(json);
+        } catch (IOException e) {
+          // The client has gone away; there is no one left to answer.
+        } finally {
+          async.complete();
+        }
+      }
+    }
+
+    /**
+     * Keeps the future of the queued query, so a deadline can cancel it. A deadline that passed
+     * before the query was even queued cancels it straight away.
+     */
+    void submitted(Future<?> future) {
+      this.future = future;
+      if (cancelled) {
+        future.cancel(true);
+      }
+    }
+
+    /**
+     * Answers with an error, unless the query was answered already.
+     * @return boolean true if this call answered.
+     */
+    boolean fail(int status, String message) {
+      if (!answered.compareAndSet(false, true)) {
+        return false;
+      }
+      try {
+        ((HttpServletResponse) async.getResponse()).sendError(status, message);
+      } catch (IOException e) {
+        // The client has gone away; there is no one left to answer.
+      } finally {
+        async.complete();
+      }
+      return true;
+    }
+
+    /**
+     * Takes the query off the queue, or interrupts it if it is running. Only called by whoever
+     * answered instead of the query, so the query is never interrupted while writing its answer.
+     */
+    private void cancel() {
+      cancelled = true;
+      Future<?> queued = future;
+      if (queued != null) {
+        queued.cancel(true);
+      }
+    }
+
+    /**
+     * Answers 503 and cancels the query, which stops it between two phases if it is running. If
+     * the query has claimed the response already, it is writing its rendered answer and completes
+     * the response itself, so there is nothing left to do.
+     */
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      if (fail(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "The query missed its deadline.")) {
+        cancel();
+      }
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      if (answered.compareAndSet(false, true)) {
+        cancel();
+      }
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {}
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {}
+  }
+
+  /**
+   * An index over the calendar, and the version of the calendar it was built from.
+   */
+  private static final class VersionedIndex {
+    private final CalendarIndex index;
+    private final long version;
+
+    VersionedIndex(CalendarIndex index, long version) {
+      this.index = index;
+      this.version = version;
+    }
   }
 }
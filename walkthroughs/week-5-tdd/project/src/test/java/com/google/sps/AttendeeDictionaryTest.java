@@ -0,0 +1,101 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AttendeeDictionaryTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private AttendeeDictionary dictionary;
+
+  @Before
+  public void setUp() {
+    dictionary = new AttendeeDictionary();
+  }
+
+  @Test
+  public void idsAreDenseAndStable() {
+    Assert.assertEquals(0, dictionary.intern(PERSON_A));
+    Assert.assertEquals(1, dictionary.intern(PERSON_B));
+    Assert.assertEquals(0, dictionary.intern(PERSON_A));
+
+    Assert.assertEquals(2, dictionary.size());
+    Assert.assertEquals(PERSON_B, dictionary.getName(1));
+    Assert.assertEquals(-1, dictionary.lookup(PERSON_C));
+  }
+
+  @Test
+  public void internAllIsSortedWithoutDuplicates() {
+    dictionary.intern(PERSON_C);
+
+    int[] actual = dictionary.internAll(Arrays.asList(PERSON_B, PERSON_C, PERSON_A, PERSON_B));
+    int[] expected = {0, 1, 2};
+
+    Assert.assertArrayEquals(expected, actual);
+  }
+
+  @Test
+  public void lookupAllLeavesOutUnknownNames() {
+    dictionary.intern(PERSON_C);
+    dictionary.intern(PERSON_A);
+
+    int[] actual = dictionary.lookupAll(Arrays.asList(PERSON_B, PERSON_C, PERSON_A, PERSON_C));
+    int[] expected = {0, 1};
+
+    Assert.assertArrayEquals(expected, actual);
+    Assert.assertEquals(2, dictionary.size());
+  }
+
+  @Test
+  public void sortedSetOperations() {
+    int[] a = {1, 4, 7, 9};
+    int[] b = {2, 4, 9, 12};
+    int[] c = {3, 5};
+
+    Assert.assertTrue(AttendeeSets.intersects(a, b));
+    Assert.assertFalse(AttendeeSets.intersects(a, c));
+    Assert.assertEquals(2, AttendeeSets.intersectionSize(a, b));
+    Assert.assertArrayEquals(new int[] {4, 9}, AttendeeSets.intersection(a, b));
+  }
+
+  @Test
+  public void bitmapSetOperations() {
+    long[] a = AttendeeSets.toBitmap(new int[] {1, 70, 130});
+    long[] b = AttendeeSets.toBitmap(new int[] {70, 130});
+    long[] c = AttendeeSets.toBitmap(new int[] {2});
+
+    Assert.assertTrue(AttendeeSets.intersects(a, b));
+    Assert.assertFalse(AttendeeSets.intersects(b, c));
+    Assert.assertEquals(2, AttendeeSets.intersectionSize(a, b));
+  }
+
+  @Test
+  public void eventAndRequestShareTheDefaultDictionary() {
+    Event event = new Event("Event 1", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_B, PERSON_A));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30);
+
+    Assert.assertArrayEquals(event.getAttendeeIds(), request.getAttendeeIds());
+  }
+}
@@ -0,0 +1,172 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class AvailabilityMasksTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+  private static final ZoneId LONDON = ZoneId.of("Europe/London");
+  private static final ZoneId TOKYO = ZoneId.of("Asia/Tokyo");
+  private static final LocalDate MONDAY = LocalDate.of(2020, 1, 6);
+
+  private static final LocalTime WORK_START = LocalTime.of(9, 0);
+  private static final LocalTime WORK_END = LocalTime.of(17, 0);
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0200PM = TimeRange.getTimeInMinutes(14, 0);
+  private static final int TIME_0300PM = TimeRange.getTimeInMinutes(15, 0);
+  private static final int TIME_0500PM = TimeRange.getTimeInMinutes(17, 0);
+
+  private static final int DURATION_1_HOUR = 60;
+  private static final int CALENDARS = 1000;
+
+  private FindMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    query = new FindMeetingQuery();
+  }
+
+  @Test
+  public void onlyHoursEveryoneWorksAreOffered() {
+    // New York: 9AM-5PM EST is 2PM-10PM UTC. London: 9AM-5PM GMT is 9AM-5PM UTC.
+    // Events  :               |--A--|
+    // Working : A                |--------------|
+    //           B    |--------------|
+    // Day     : |-----------------------------------|
+    // Options :                     |--|
+    Map<String, WorkingHours> hours = new HashMap<>();
+    hours.put(PERSON_A, WorkingHours.weekdays(NEW_YORK, WORK_START, WORK_END));
+    hours.put(PERSON_B, WorkingHours.weekdays(LONDON, WORK_START, WORK_END));
+    AvailabilityMasks masks = AvailabilityMasks.of(hours, MONDAY, ZoneOffset.UTC);
+    CalendarIndex index = new CalendarIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0300PM, false),
+            Arrays.asList(PERSON_A))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 60);
+
+    Collection<TimeRange> actual = query.query(index, masks, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0300PM, TIME_0500PM, false));
+
+    Assert.assertEquals(expected, actual);
+    Assert.assertTrue(masks.isWorking(PERSON_A, TimeRange.fromStartEnd(TIME_0200PM, TIME_0300PM,
+        false)));
+    Assert.assertFalse(masks.isWorking(PERSON_A, TimeRange.fromStartEnd(TIME_0900AM, TIME_0300PM,
+        false)));
+    Assert.assertTrue(masks.isWorking(PERSON_C, TimeRange.WHOLE_DAY));
+  }
+
+  @Test
+  public void optionalAttendeeOutsideWorkingHoursIsUnavailable() {
+    // Tokyo: 9AM-5PM JST is midnight-8AM UTC, so Person C can't make any of Person B's hours.
+    Map<String, WorkingHours> hours = new HashMap<>();
+    hours.put(PERSON_B, WorkingHours.weekdays(LONDON, WORK_START, WORK_END));
+    hours.put(PERSON_C, WorkingHours.weekdays(TOKYO, WORK_START, WORK_END));
+    AvailabilityMasks masks = AvailabilityMasks.of(hours, MONDAY, ZoneOffset.UTC);
+    CalendarIndex index = new CalendarIndex(Collections.<Event>emptyList());
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_B), DURATION_1_HOUR);
+    request.addOptionalAttendee(PERSON_C);
+
+    Collection<TimeRange> actual = query.query(index, masks, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0900AM, TIME_0500PM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void optionalAttendeeWithoutEventsKeepsWorkingHours() {
+    // The optional attendee is at no event, so they have no attendee id, but their working hours
+    // still apply: New York's 9AM-5PM EST is 2PM-10PM UTC.
+    String newcomer = "Person Without Events";
+    Map<String, WorkingHours> hours = new HashMap<>();
+    hours.put(PERSON_B, WorkingHours.weekdays(LONDON, WORK_START, WORK_END));
+    hours.put(newcomer, WorkingHours.weekdays(NEW_YORK, WORK_START, WORK_END));
+    AvailabilityMasks masks = AvailabilityMasks.of(hours, MONDAY, ZoneOffset.UTC);
+    CalendarIndex index = new CalendarIndex(Collections.<Event>emptyList());
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_B), DURATION_1_HOUR);
+    request.addOptionalAttendee(newcomer);
+
+    Collection<TimeRange> actual = query.query(index, masks, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0200PM, TIME_0500PM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void masksMatchOffHoursBookedAsEvents() {
+    Random random = new Random(19);
+    RandomCalendar calendar = new RandomCalendar(19);
+    List<String> people = Arrays.asList(PERSON_A, PERSON_B, PERSON_C, "Person D");
+    List<ZoneId> zones = Arrays.asList(ZoneOffset.UTC, NEW_YORK, LONDON, TOKYO);
+    for (int i = 0; i < CALENDARS; i++) {
+      Map<String, WorkingHours> hours = new HashMap<>();
+      for (String person : people) {
+        if (random.nextBoolean()) {
+          LocalTime start = LocalTime.of(random.nextInt(24), 15 * random.nextInt(4));
+          hours.put(person, new WorkingHours(zones.get(random.nextInt(zones.size())), start,
+              start.plusHours(4 + random.nextInt(10)), EnumSet.allOf(DayOfWeek.class)));
+        }
+      }
+      AvailabilityMasks masks = AvailabilityMasks.of(hours, MONDAY, ZoneOffset.UTC);
+
+      // Book every off hour as an event instead, and query the plain way.
+      List<Event> events = new ArrayList<>(calendar.events());
+      List<Event> booked = new ArrayList<>(events);
+      for (String person : hours.keySet()) {
+        long[] off = MinuteBitmap.create();
+        masks.addOffHours(off, Arrays.asList(person));
+        int start = MinuteBitmap.nextSet(off, 0);
+        while (start < MinuteBitmap.MINUTES) {
+          int end = MinuteBitmap.nextClear(off, start);
+          booked.add(new Event("Off", TimeRange.fromStartEnd(start, end, false),
+              Arrays.asList(person)));
+          start = MinuteBitmap.nextSet(off, end);
+        }
+      }
+      MeetingRequest request = calendar.request();
+
+      Assert.assertEquals("calendar " + i, query.query(booked, request),
+          query.query(new CalendarIndex(events), masks, request));
+    }
+  }
+}
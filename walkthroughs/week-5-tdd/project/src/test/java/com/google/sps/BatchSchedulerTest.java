@@ -0,0 +1,203 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class BatchSchedulerTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+
+  private static final int DURATION_60_MINUTES = 60;
+  private static final int CALENDARS = 500;
+  private static final int REQUESTS = 8;
+
+  private BatchScheduler scheduler;
+
+  @Before
+  public void setUp() {
+    scheduler = new BatchScheduler();
+  }
+
+  @Test
+  public void placementsBecomeBusyTime() {
+    // Both meetings want Person A on an empty day; the second is placed after the first.
+    List<MeetingRequest> requests = Arrays.asList(
+        new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES),
+        new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES));
+
+    BatchScheduler.Schedule schedule =
+        scheduler.schedule(Collections.<Event>emptyList(), requests);
+
+    List<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartDuration(TimeRange.START_OF_DAY, DURATION_60_MINUTES),
+        TimeRange.fromStartDuration(DURATION_60_MINUTES, DURATION_60_MINUTES));
+    Assert.assertEquals(expected, schedule.getPlacements());
+    Assert.assertEquals(0, schedule.getUnplacedCount());
+  }
+
+  @Test
+  public void independentMeetingsShareTimes() {
+    List<MeetingRequest> requests = Arrays.asList(
+        new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES),
+        new MeetingRequest(Arrays.asList(PERSON_B), DURATION_60_MINUTES));
+
+    BatchScheduler.Schedule schedule =
+        scheduler.schedule(Collections.<Event>emptyList(), requests);
+
+    TimeRange first = TimeRange.fromStartDuration(TimeRange.START_OF_DAY, DURATION_60_MINUTES);
+    Assert.assertEquals(Arrays.asList(first, first), schedule.getPlacements());
+  }
+
+  @Test
+  public void mostConstrainedMeetingIsPlacedFirst() {
+    // Person B is only free from 8:00 to 9:00. The meeting with A and B is placed first, so the
+    // meeting with only A goes elsewhere even though it was asked for first.
+    //
+    // Events  : |-----B-----|     |---------A+B---------|
+    // Day     : |---------------------------------------|
+    // Options :             |-A+B-|
+    List<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_A, PERSON_B)));
+    List<MeetingRequest> requests = Arrays.asList(
+        new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES),
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_60_MINUTES));
+
+    BatchScheduler.Schedule schedule = scheduler.schedule(events, requests);
+
+    List<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartDuration(TimeRange.START_OF_DAY, DURATION_60_MINUTES),
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES));
+    Assert.assertEquals(expected, schedule.getPlacements());
+  }
+
+  @Test
+  public void localSearchMovesMeetingOutOfTheWay() {
+    // Person A and Person B are free from 8:00 to 9:00 and from 10:00 to 11:00, Person C only
+    // from 8:00 to 9:00. Greedy puts the A+B meeting at 8:00, which leaves no room for the A+C
+    // meeting until the local search moves the A+B meeting to 10:00.
+    List<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(PERSON_A, PERSON_B, PERSON_C)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A, PERSON_B, PERSON_C)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false),
+            Arrays.asList(PERSON_C)),
+        new Event("Event 4", TimeRange.fromStartEnd(TIME_1100AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_A, PERSON_B, PERSON_C)));
+    List<MeetingRequest> requests = Arrays.asList(
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_60_MINUTES),
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_C), DURATION_60_MINUTES));
+
+    BatchScheduler.Schedule greedy = new BatchScheduler(0).schedule(events, requests);
+    BatchScheduler.Schedule searched = scheduler.schedule(events, requests);
+
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES), null),
+        greedy.getPlacements());
+    Assert.assertEquals(1, greedy.getUnplacedCount());
+    Assert.assertEquals(Arrays.asList(
+        TimeRange.fromStartDuration(TIME_1000AM, DURATION_60_MINUTES),
+        TimeRange.fromStartDuration(TIME_0800AM, DURATION_60_MINUTES)),
+        searched.getPlacements());
+    Assert.assertEquals(0, searched.getUnplacedCount());
+  }
+
+  @Test
+  public void meetingLongerThanTheDayIsUnplaced() {
+    List<MeetingRequest> requests = Arrays.asList(new MeetingRequest(
+        Arrays.asList(PERSON_A), TimeRange.WHOLE_DAY.duration() + 1));
+
+    BatchScheduler.Schedule schedule =
+        scheduler.schedule(Collections.<Event>emptyList(), requests);
+
+    Assert.assertEquals(Collections.singletonList(null), schedule.getPlacements());
+  }
+
+  @Test
+  public void reportsEveryPhase() {
+    BatchScheduler.Schedule schedule = scheduler.schedule(Collections.<Event>emptyList(),
+        Arrays.asList(new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES)));
+
+    for (BatchScheduler.Phase phase : BatchScheduler.Phase.values()) {
+      Assert.assertTrue(schedule.getPhaseNanos().get(phase) >= 0);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeMaxMovesIsRejected() {
+    new BatchScheduler(-1);
+  }
+
+  @Test
+  public void randomPlacementsAreFreeAndDoNotOverlap() {
+    FindMeetingQuery query = new FindMeetingQuery();
+    for (long seed = 0; seed < CALENDARS; seed++) {
+      RandomCalendar calendar = new RandomCalendar(seed);
+      Collection<Event> events = calendar.events();
+      List<MeetingRequest> requests = new ArrayList<>();
+      for (int i = 0; i < REQUESTS; i++) {
+        requests.add(calendar.request());
+      }
+
+      List<TimeRange> placements = scheduler.schedule(events, requests).getPlacements();
+
+      for (int i = 0; i < REQUESTS; i++) {
+        TimeRange placement = placements.get(i);
+        if (placement == null) {
+          continue;
+        }
+        MeetingRequest required =
+            new MeetingRequest(requests.get(i).getAttendees(), requests.get(i).getDuration());
+        Assert.assertTrue("seed " + seed, fitsIn(placement, query.query(events, required)));
+        for (int j = i + 1; j < REQUESTS; j++) {
+          if (placements.get(j) != null && !Collections.disjoint(
+              requests.get(i).getAttendees(), requests.get(j).getAttendees())) {
+            Assert.assertFalse("seed " + seed, placement.overlaps(placements.get(j)));
+          }
+        }
+      }
+    }
+  }
+
+  private static boolean fitsIn(TimeRange placement, Collection<TimeRange> free) {
+    for (TimeRange range : free) {
+      if (range.contains(placement)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
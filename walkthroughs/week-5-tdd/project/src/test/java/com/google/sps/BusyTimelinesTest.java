@@ -0,0 +1,118 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class BusyTimelinesTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int CALENDARS = 2000;
+  private static final int LARGE_CALENDARS = 50;
+  private static final int LARGE_MEETING = 300;
+
+  private FindMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    query = new FindMeetingQuery();
+  }
+
+  @Test
+  public void timelineMergesOverlappingEvents() {
+    BusyTimelines timelines = new BusyTimelines(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0830AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A, PERSON_B))));
+
+    List<TimeRange> actual = timelines.getTimeline(PERSON_A);
+    List<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_1000AM, false));
+
+    Assert.assertEquals(expected, actual);
+    Assert.assertSame(actual, timelines.getTimeline(PERSON_A));
+  }
+
+  @Test
+  public void timelinesQueryMatchesQueryOnRandomCalendars() {
+    RandomCalendar calendar = new RandomCalendar(5);
+    for (int i = 0; i < CALENDARS; i++) {
+      Collection<Event> events = calendar.events();
+      MeetingRequest request = calendar.request();
+
+      Collection<TimeRange> expected = query.query(events, request);
+      Collection<TimeRange> actual = query.query(new BusyTimelines(events), request);
+
+      Assert.assertEquals("calendar " + i, expected, actual);
+    }
+  }
+
+  @Test
+  public void parallelUnionMatchesSequentialMerge() {
+    Random random = new Random(17);
+    for (int i = 0; i < LARGE_CALENDARS; i++) {
+      List<String> people = new ArrayList<>();
+      List<Event> events = new ArrayList<>();
+      for (int p = 0; p < LARGE_MEETING; p++) {
+        people.add("Person " + p);
+        for (int e = random.nextInt(4); e > 0; e--) {
+          int start = random.nextInt(TimeRange.END_OF_DAY);
+          int end = Math.min(start + 1 + random.nextInt(120), TimeRange.END_OF_DAY + 1);
+          events.add(new Event("Event " + events.size(), TimeRange.fromStartEnd(start, end, false),
+              Arrays.asList(people.get(random.nextInt(people.size())), "Person " + p)));
+        }
+      }
+      MeetingRequest request =
+          new MeetingRequest(people.subList(0, 1 + random.nextInt(people.size())), 30);
+
+      List<TimeRange> sequential = new BusyTimelines(events, Integer.MAX_VALUE)
+          .getMergedBusyTimes(request.getAttendees());
+      List<TimeRange> parallel = new BusyTimelines(events, 1)
+          .getMergedBusyTimes(request.getAttendees());
+
+      Assert.assertEquals("calendar " + i, sequential, parallel);
+
+      // The query forks the union over a shared model's timelines.
+      CalendarModel model = new CalendarModel(events);
+      Assert.assertEquals("calendar " + i, model.getMergedBusyTimes(request.getAttendees()),
+          TimelineUnion.union(model, request.getAttendees()));
+      Assert.assertEquals("calendar " + i, new FindMeetingQuery(Integer.MAX_VALUE).query(events,
+          request), new FindMeetingQuery(1).query(model, request));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void parallelThresholdMustBePositive() {
+    new BusyTimelines(Arrays.<Event>asList(), 0);
+  }
+}
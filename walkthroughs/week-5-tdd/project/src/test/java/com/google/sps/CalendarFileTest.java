@@ -0,0 +1,140 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CalendarFileTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Zoë C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+
+  private static final int CALENDARS = 200;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private FindMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    query = new FindMeetingQuery();
+  }
+
+  @Test
+  public void eventsComeBackSortedByStart() throws IOException {
+    // Events  :             |--C--|
+    //           |--A B--|
+    //                |--B--|
+    Event late = new Event("Réunion", TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false),
+        Arrays.asList(PERSON_C));
+    Event early = new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        Arrays.asList(PERSON_A, PERSON_B));
+    Event middle = new Event("Event 2", TimeRange.fromStartEnd(TIME_0830AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_B));
+    CalendarFile file = writeAndOpen(Arrays.asList(late, early, middle));
+
+    Assert.assertEquals(3, file.size());
+    Assert.assertEquals(Arrays.asList(early, middle, late), file.getEvents());
+    Assert.assertEquals(Arrays.asList(early, late),
+        file.getEventsFor(Arrays.asList(PERSON_C, PERSON_A, "Nobody")));
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_1000AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false)),
+        file.getMergedBusyTimes(Arrays.asList(PERSON_B, PERSON_C)));
+  }
+
+  @Test
+  public void eventsReadBackReuseTheInternedIds() throws IOException {
+    Event event = new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        Arrays.asList(PERSON_A, PERSON_B));
+    CalendarFile file = writeAndOpen(Arrays.asList(event));
+    int size = AttendeeDictionary.getDefault().size();
+
+    Event read = file.getEvents().get(0);
+
+    Assert.assertEquals(event, read);
+    Assert.assertArrayEquals(event.getAttendeeIds(), read.getAttendeeIds());
+    Assert.assertEquals(size, AttendeeDictionary.getDefault().size());
+  }
+
+  @Test
+  public void emptyCalendarRoundTrips() throws IOException {
+    CalendarFile file = writeAndOpen(Collections.<Event>emptyList());
+
+    Assert.assertEquals(0, file.size());
+    Assert.assertTrue(file.getEvents().isEmpty());
+    Assert.assertTrue(file.getMergedBusyTimes(Arrays.asList(PERSON_A)).isEmpty());
+  }
+
+  @Test(expected = IOException.class)
+  public void otherFilesAreRejected() throws IOException {
+    Path path = folder.newFile().toPath();
+    Files.write(path, "[{\"title\": \"Event 1\"}]".getBytes("UTF-8"));
+    CalendarFile.open(path);
+  }
+
+  @Test(expected = IOException.class)
+  public void truncatedFilesAreRejected() throws IOException {
+    Path path = folder.newFile().toPath();
+    CalendarFile.write(Arrays.asList(new Event("Event 1", TimeRange.WHOLE_DAY,
+        Arrays.asList(PERSON_A))), path);
+    byte[] bytes = Files.readAllBytes(path);
+    Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+    CalendarFile.open(path);
+  }
+
+  @Test
+  public void queriesMatchQueryOverEvents() throws IOException {
+    RandomCalendar calendar = new RandomCalendar(16);
+    for (int i = 0; i < CALENDARS; i++) {
+      List<Event> events = new ArrayList<>(calendar.events());
+      CalendarFile file = writeAndOpen(events);
+      MeetingRequest request = calendar.request();
+
+      Assert.assertEquals("calendar " + i, query.query(events, request),
+          query.query(file, request));
+      Assert.assertEquals("calendar " + i, query.rank(events, request, 3),
+          query.rank(file, request, 3));
+    }
+  }
+
+  private CalendarFile writeAndOpen(List<Event> events) throws IOException {
+    Path path = folder.newFile().toPath();
+    CalendarFile.write(events, path);
+    return CalendarFile.open(path);
+  }
+}
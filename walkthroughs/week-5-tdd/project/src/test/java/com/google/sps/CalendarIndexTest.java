@@ -0,0 +1,176 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CalendarIndexTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final Room SMALL_ROOM = new Room("Small room", 2);
+  private static final Room LARGE_ROOM = new Room("Large room", 10);
+  private static final Room PHONE_BOOTH = new Room("Phone booth", 1);
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int CALENDARS = 2000;
+
+  private FindMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    query = new FindMeetingQuery();
+  }
+
+  @Test
+  public void busyMinutesCoverEveryAttendee() {
+    CalendarIndex index = new CalendarIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0830AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_B))));
+
+    long[] busy = index.busyMinutes(Arrays.asList(PERSON_A, PERSON_B));
+
+    Assert.assertFalse(MinuteBitmap.get(busy, TIME_0800AM - 1));
+    Assert.assertTrue(MinuteBitmap.get(busy, TIME_0800AM));
+    Assert.assertFalse(MinuteBitmap.get(busy, TIME_0830AM));
+    Assert.assertTrue(MinuteBitmap.get(busy, TIME_1000AM - 1));
+    Assert.assertFalse(MinuteBitmap.get(busy, TIME_1000AM));
+  }
+
+  @Test
+  public void freeRangesMergeOverlappingEvents() {
+    // Events  : |---A---|     |--A--|
+    //                |--B--|
+    // Day     : |-------------------------|
+    // Options :            |--|     |-----|
+    CalendarIndex index = new CalendarIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0800AM - 60, TIME_0830AM, false),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A))));
+
+    Collection<TimeRange> actual =
+        index.freeRanges(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0830AM, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void unknownAttendeesAreFreeAllDay() {
+    CalendarIndex index = new CalendarIndex(Collections.emptySet());
+
+    Collection<TimeRange> actual =
+        index.freeRanges(Arrays.asList(PERSON_C), DURATION_30_MINUTES);
+
+    Assert.assertEquals(Arrays.asList(TimeRange.WHOLE_DAY), actual);
+  }
+
+  @Test
+  public void indexedQueryMatchesQueryOnRandomCalendars() {
+    RandomCalendar calendar = new RandomCalendar(7);
+    for (int i = 0; i < CALENDARS; i++) {
+      Collection<Event> events = calendar.events();
+      MeetingRequest request = calendar.request();
+
+      Collection<TimeRange> expected = query.query(events, request);
+      Collection<TimeRange> actual = query.query(new CalendarIndex(events), request);
+
+      Assert.assertEquals("calendar " + i, expected, actual);
+    }
+  }
+
+  @Test
+  public void slotsGetTheSmallestFreeRoomThatFits() {
+    // Events  :       |--A--|     |-Small-|
+    // Day     : |---------------------------------|
+    // Small   : |-----|     |-----|       |-------|
+    // Large   :             |---------------------|
+    CalendarIndex index = new CalendarIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false),
+            Arrays.asList(SMALL_ROOM.getName()))));
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+    request.addRoom(LARGE_ROOM);
+    request.addRoom(SMALL_ROOM);
+    request.addRoom(PHONE_BOOTH);
+
+    List<RoomSlot> actual = query.queryRooms(index, AvailabilityMasks.NONE, request);
+    List<RoomSlot> expected = Arrays.asList(
+        new RoomSlot(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            SMALL_ROOM),
+        new RoomSlot(TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false), SMALL_ROOM),
+        new RoomSlot(TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true), LARGE_ROOM),
+        new RoomSlot(TimeRange.fromStartEnd(TIME_1100AM, TimeRange.END_OF_DAY, true),
+            SMALL_ROOM));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void timesWithoutAFreeRoomAreRuledOut() {
+    // Events  :       |-Small-|
+    // Day     : |-------------------------|
+    // Options : |-----|       |-----------|
+    CalendarIndex index = new CalendarIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(SMALL_ROOM.getName()))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addRoom(SMALL_ROOM);
+
+    Collection<TimeRange> actual = query.query(index, AvailabilityMasks.NONE, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void noRoomBigEnough() {
+    CalendarIndex index = new CalendarIndex(Collections.<Event>emptySet());
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B, PERSON_C), DURATION_30_MINUTES);
+    request.addRoom(SMALL_ROOM);
+
+    Assert.assertTrue(query.query(index, AvailabilityMasks.NONE, request).isEmpty());
+    Assert.assertTrue(query.queryRooms(index, AvailabilityMasks.NONE, request).isEmpty());
+  }
+}
@@ -0,0 +1,114 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class CalendarModelTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int CALENDARS = 500;
+
+  private FindMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    query = new FindMeetingQuery();
+  }
+
+  @Test
+  public void removingAnEventSplitsTheMergedRange() {
+    // Events  : |--A--|
+    //               |--A--|
+    //                   |--A--|
+    Event first = new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        Arrays.asList(PERSON_A));
+    Event middle = new Event("Event 2", TimeRange.fromStartEnd(TIME_0830AM, TIME_0930AM, false),
+        Arrays.asList(PERSON_A));
+    Event last = new Event("Event 3", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_A));
+    CalendarModel model = new CalendarModel(Arrays.asList(first, middle, last));
+
+    Assert.assertEquals(Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_1000AM, false)),
+        model.getTimeline(PERSON_A));
+
+    Assert.assertTrue(model.remove(middle));
+
+    Assert.assertEquals(Arrays.asList(first.getWhen(), last.getWhen()),
+        model.getTimeline(PERSON_A));
+  }
+
+  @Test
+  public void versionChangesWithEveryEdit() {
+    Event event = new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        Arrays.asList(PERSON_B));
+    CalendarModel model = new CalendarModel();
+
+    long before = model.getVersion();
+    model.add(event);
+    long added = model.getVersion();
+    Assert.assertFalse(model.remove(
+        new Event("Unknown", TimeRange.WHOLE_DAY, Arrays.asList(PERSON_B))));
+    model.remove(event);
+
+    Assert.assertNotEquals(before, added);
+    Assert.assertNotEquals(added, model.getVersion());
+    Assert.assertTrue(model.getTimeline(PERSON_B).isEmpty());
+  }
+
+  @Test
+  public void incrementalTimelinesMatchQueryAfterEdits() {
+    Random random = new Random(13);
+    RandomCalendar calendar = new RandomCalendar(13);
+    for (int i = 0; i < CALENDARS; i++) {
+      CalendarModel model = new CalendarModel();
+      List<Event> current = new ArrayList<>();
+      for (int step = 0; step < 10; step++) {
+        for (Event e : calendar.events()) {
+          model.add(e);
+          current.add(e);
+        }
+        while (!current.isEmpty() && random.nextBoolean()) {
+          Event removed = current.remove(random.nextInt(current.size()));
+          Assert.assertTrue(model.remove(removed));
+        }
+
+        MeetingRequest request = calendar.request();
+        Collection<TimeRange> expected = query.query(current, request);
+        Collection<TimeRange> actual = query.query(model, request);
+
+        Assert.assertEquals("calendar " + i + ", step " + step, expected, actual);
+      }
+    }
+  }
+}
@@ -0,0 +1,134 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import com.google.gson.Gson;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class ColumnarEventStoreTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+
+  private static final int CALENDARS = 1000;
+
+  private FindMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    query = new FindMeetingQuery();
+  }
+
+  @Test
+  public void eventsComeBackAsTheyWereAdded() {
+    Event first = new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        Arrays.asList(PERSON_A, PERSON_B));
+    Event second = new Event("", TimeRange.fromStartDuration(TIME_1000AM, 0),
+        Collections.<String>emptyList());
+    ColumnarEventStore store = ColumnarEventStore.of(Arrays.asList(first, second));
+
+    Assert.assertEquals(2, store.size());
+    Assert.assertEquals(Arrays.asList(first, second), store.getEvents());
+    Assert.assertEquals(Arrays.asList(first), store.getEventsFor(Arrays.asList(PERSON_B)));
+    Assert.assertTrue(store.getEventsFor(Arrays.asList(PERSON_C)).isEmpty());
+  }
+
+  @Test
+  public void attendeesAreInternedWhenAddedAndNotWhenRead() {
+    String newcomer = "Person Only In Columns";
+    AttendeeDictionary dictionary = AttendeeDictionary.getDefault();
+    ColumnarEventStore store = new ColumnarEventStore.Builder()
+        .add("Event 1", TIME_0800AM, 60, Arrays.asList(PERSON_A, newcomer))
+        .build();
+    int size = dictionary.size();
+
+    Event read = store.getEvents().get(0);
+
+    Assert.assertTrue(dictionary.lookup(newcomer) >= 0);
+    Assert.assertArrayEquals(dictionary.lookupAll(Arrays.asList(PERSON_A, newcomer)),
+        read.getAttendeeIds());
+    Assert.assertEquals(size, dictionary.size());
+  }
+
+  @Test
+  public void eventsForSeveralAttendeesAreListedOnce() {
+    // Events  : |--A B--|
+    //                |--B--|
+    //                        |--C--|
+    Event first = new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        Arrays.asList(PERSON_A, PERSON_B));
+    Event second = new Event("Event 2", TimeRange.fromStartEnd(TIME_0830AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_B));
+    Event third = new Event("Event 3", TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false),
+        Arrays.asList(PERSON_C));
+    ColumnarEventStore store = ColumnarEventStore.of(Arrays.asList(first, second, third));
+
+    Assert.assertEquals(Arrays.asList(first, second),
+        store.getEventsFor(Arrays.asList(PERSON_A, PERSON_B)));
+    Assert.assertEquals(Arrays.asList(first, second, third),
+        store.getEventsFor(Arrays.asList(PERSON_C, PERSON_B, PERSON_C)));
+    Assert.assertEquals(
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_1000AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false)),
+        store.getMergedBusyTimes(Arrays.asList(PERSON_B, PERSON_C)));
+  }
+
+  @Test
+  public void viewsSerializeLikeLists() {
+    Event event = new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+        Arrays.asList(PERSON_A));
+    ColumnarEventStore store = ColumnarEventStore.of(Arrays.asList(event));
+
+    Assert.assertEquals(new Gson().toJson(Arrays.asList(event)),
+        new Gson().toJson(store.getEvents()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void negativeDurationIsRejected() {
+    new ColumnarEventStore.Builder().add("Event 1", TIME_0800AM, -1, Arrays.asList(PERSON_A));
+  }
+
+  @Test
+  public void queriesMatchQueryOverEvents() {
+    RandomCalendar calendar = new RandomCalendar(15);
+    for (int i = 0; i < CALENDARS; i++) {
+      List<Event> events = new ArrayList<>(calendar.events());
+      ColumnarEventStore store = ColumnarEventStore.of(events);
+      MeetingRequest request = calendar.request();
+
+      Assert.assertEquals("calendar " + i, query.query(events, request),
+          query.query(store, request));
+      Assert.assertEquals("calendar " + i, query.rank(events, request, 3),
+          query.rank(store, request, 3));
+    }
+  }
+}
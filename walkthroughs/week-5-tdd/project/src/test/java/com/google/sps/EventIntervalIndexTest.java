@@ -0,0 +1,118 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventIntervalIndexTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1200PM = TimeRange.getTimeInMinutes(12, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int CALENDARS = 2000;
+
+  private FindMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    query = new FindMeetingQuery();
+  }
+
+  @Test
+  public void overlappingMatchesLinearScan() {
+    Random random = new Random(3);
+    RandomCalendar calendar = new RandomCalendar(3);
+    for (int i = 0; i < CALENDARS; i++) {
+      Collection<Event> events = calendar.events();
+      EventIntervalIndex index = new EventIntervalIndex(events);
+      int start = random.nextInt(TimeRange.WHOLE_DAY.end());
+      TimeRange range = TimeRange.fromStartDuration(start, random.nextInt(180));
+      List<String> attendees = Arrays.asList(PERSON_A);
+
+      List<Event> expected = new ArrayList<>();
+      for (Event e : events) {
+        if (range.overlaps(e.getWhen()) && e.getAttendees().contains(PERSON_A)) {
+          expected.add(e);
+        }
+      }
+      List<Event> actual = index.overlapping(range, attendees);
+
+      Assert.assertEquals("calendar " + i, sortedTitles(expected), sortedTitles(actual));
+    }
+  }
+
+  @Test
+  public void wholeDayWindowMatchesQuery() {
+    RandomCalendar calendar = new RandomCalendar(11);
+    for (int i = 0; i < CALENDARS; i++) {
+      Collection<Event> events = calendar.events();
+      MeetingRequest request = calendar.request();
+
+      Collection<TimeRange> expected = query.query(events, request);
+      Collection<TimeRange> actual =
+          query.query(new EventIntervalIndex(events), request, TimeRange.WHOLE_DAY);
+
+      Assert.assertEquals("calendar " + i, expected, actual);
+    }
+  }
+
+  @Test
+  public void narrowWindowOnlyReturnsTimesInsideIt() {
+    // Events  :        |--A--|           |--B--|
+    // Window  :     |-------------|
+    // Options :     |--|     |----|
+    EventIntervalIndex index = new EventIntervalIndex(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TimeRange.getTimeInMinutes(15, 0), 60),
+            Arrays.asList(PERSON_B))));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+
+    Collection<TimeRange> actual =
+        query.query(index, request, TimeRange.fromStartEnd(TIME_0800AM, TIME_1200PM, false));
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TIME_1200PM, false));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  private static List<String> sortedTitles(Collection<Event> events) {
+    List<String> titles = new ArrayList<>();
+    for (Event e : events) {
+      titles.add(e.getTitle());
+    }
+    Collections.sort(titles);
+    return titles;
+  }
+}
@@ -14,11 +14,14 @@
 
 package com.google.sps;
 
+import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -523,5 +526,95 @@ public final class FindMeetingQueryTest {
     Assert.assertEquals(expected, actual);
   }
 
-}
+  @Test
+  public void mandatoryAttendeeWithoutEventsStillCountsAsMandatory() {
+    // Nobody by the mandatory attendee's name is at any event, so they have no attendee id. The
+    // request still has a mandatory attendee, so the optional one is only accommodated.
+    //
+    // Events  :       |--B--|
+    // Day     : |-----------------------------|
+    // Options : |--1--|     |--------2--------|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_B)));
+    MeetingRequest request = new MeetingRequest(
+        Arrays.asList("Person Without Events"), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
 
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0900AM, TimeRange.END_OF_DAY, true));
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void interruptedQueryStopsBetweenPhases() {
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_A)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    Thread.currentThread().interrupt();
+    try {
+      query.query(events, request);
+      Assert.fail("an interrupted query ran to the end");
+    } catch (CancellationException e) {
+      Assert.assertTrue(Thread.currentThread().isInterrupted());
+    } finally {
+      Thread.interrupted();
+    }
+    Assert.assertEquals(2, query.query(events, request).size());
+  }
+
+  @Test
+  public void intersectionOfNamesKeepsNamesWithoutEvents() {
+    // Person A is at an event, so they have an id; the other name was never interned.
+    new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+        Arrays.asList(PERSON_A));
+    String newcomer = "Person Without Events";
+
+    Collection<String> actual = query.getIntersection(
+        Arrays.asList(PERSON_A, PERSON_B, newcomer), Arrays.asList(newcomer, PERSON_A));
+
+    Assert.assertEquals(new HashSet<>(Arrays.asList(PERSON_A, newcomer)), new HashSet<>(actual));
+    Assert.assertEquals(2, actual.size());
+    Assert.assertEquals(-1, AttendeeDictionary.getDefault().lookup(newcomer));
+  }
+
+  @Test
+  public void optionalOnlyEventsAreViewsOfTheDay() {
+    // Events  : |--A C--|
+    //                |--B C D--|
+    //                            |--C--|
+    // Only the second event has optional attendees (B and C) and no mandatory ones.
+    Event mandatory = new Event("Event 1",
+        TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false), Arrays.asList(PERSON_A, PERSON_C));
+    Event optional = new Event("Event 2",
+        TimeRange.fromStartEnd(TIME_0830AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_B, PERSON_C, PERSON_D));
+    Event late = new Event("Event 3",
+        TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false), Arrays.asList(PERSON_C));
+    Collection<Event> events = Arrays.asList(mandatory, optional, late);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+    TimeRange range = TimeRange.fromStartEnd(TIME_0800AM, TIME_0930AM, false);
+
+    List<OptionalEventView> views = new ArrayList<>();
+    for (OptionalEventView view : query.getOptionalOnlyViewsInRange(range, events, request)) {
+      views.add(view);
+    }
+    Collection<Event> copies = query.getOptionalOnlyEventsInRange(range, events, request);
+
+    Assert.assertEquals(1, views.size());
+    Assert.assertSame(optional, views.get(0).getEvent());
+    Assert.assertEquals(2, views.get(0).getOptionalCount());
+    Assert.assertEquals(Arrays.asList(new Event("Event 2", optional.getWhen(),
+        Arrays.asList(PERSON_B, PERSON_C))), new ArrayList<>(copies));
+    Assert.assertEquals(
+        query.getAllUnavailability(new ArrayList<>(copies), request).toString(),
+        query.getAllUnavailability(copies, request).toString());
+  }
+}
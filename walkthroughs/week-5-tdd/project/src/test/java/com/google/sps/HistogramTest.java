@@ -0,0 +1,109 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class HistogramTest {
+  private static final int THREADS = 4;
+  private static final int VALUES_PER_THREAD = 10000;
+
+  @Test
+  public void emptyHistogram() {
+    Histogram histogram = new Histogram();
+
+    Assert.assertEquals(0, histogram.getCount());
+    Assert.assertEquals(0, histogram.getSum());
+    Assert.assertEquals(0, histogram.getMax());
+    Assert.assertEquals(0, histogram.getPercentile(99));
+  }
+
+  @Test
+  public void countsSumsAndMax() {
+    Histogram histogram = new Histogram();
+    histogram.record(0);
+    histogram.record(5);
+    histogram.record(1000);
+    histogram.record(-3);
+
+    Assert.assertEquals(4, histogram.getCount());
+    Assert.assertEquals(1005, histogram.getSum());
+    Assert.assertEquals(1000, histogram.getMax());
+  }
+
+  @Test
+  public void percentilesAreBoundedByTheirBucket() {
+    // 90 values of 100 fall in the 64..127 bucket, 10 values of 5000 in the 4096..8191 bucket.
+    Histogram histogram = new Histogram();
+    for (int i = 0; i < 90; i++) {
+      histogram.record(100);
+    }
+    for (int i = 0; i < 10; i++) {
+      histogram.record(5000);
+    }
+
+    Assert.assertEquals(127, histogram.getPercentile(50));
+    Assert.assertEquals(127, histogram.getPercentile(90));
+    Assert.assertEquals(5000, histogram.getPercentile(99));
+    Assert.assertEquals(5000, histogram.getPercentile(100));
+  }
+
+  @Test
+  public void resetForgetsEverything() {
+    Histogram histogram = new Histogram();
+    histogram.record(42);
+
+    histogram.reset();
+
+    Assert.assertEquals(0, histogram.getCount());
+    Assert.assertEquals(0, histogram.getSum());
+    Assert.assertEquals(0, histogram.getMax());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsPercentileOutOfRange() {
+    new Histogram().getPercentile(101);
+  }
+
+  @Test
+  public void concurrentRecordingLosesNothing() throws InterruptedException {
+    Histogram histogram = new Histogram();
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < THREADS; t++) {
+      Thread thread = new Thread(() -> {
+        for (int i = 1; i <= VALUES_PER_THREAD; i++) {
+          histogram.record(i);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    long sumPerThread = (long) VALUES_PER_THREAD * (VALUES_PER_THREAD + 1) / 2;
+    Assert.assertEquals(THREADS * VALUES_PER_THREAD, histogram.getCount());
+    Assert.assertEquals(THREADS * sumPerThread, histogram.getSum());
+    Assert.assertEquals(VALUES_PER_THREAD, histogram.getMax());
+  }
+}
@@ -0,0 +1,195 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class HorizonIndexTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  // Day 18262 is the first day of the year 2020.
+  private static final long DAY_1 = 18262;
+  private static final long DAY_2 = DAY_1 + 1;
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+
+  private static final int DURATION_1_HOUR = 60;
+  private static final int NO_LIMIT = Integer.MAX_VALUE;
+
+  private static final int SERIES = 200;
+  private static final int DAYS = 60;
+
+  private HorizonIndex index;
+
+  @Before
+  public void setUp() {
+    index = new HorizonIndex();
+  }
+
+  @Test
+  public void freeAcrossTheWholeHorizon() {
+    EpochRange horizon = EpochRange.ofDays(DAY_1, 30);
+
+    List<EpochRange> actual =
+        index.firstSlots(Arrays.asList(PERSON_A), horizon, DURATION_1_HOUR, NO_LIMIT);
+
+    Assert.assertEquals(Arrays.asList(horizon), actual);
+  }
+
+  @Test
+  public void slotsSpanMidnight() {
+    // Person A is busy on the first day and Person B on the second, so the free range between
+    // their events runs through midnight.
+    index.add(new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_A)), DAY_1);
+    index.add(new Event("Event 2", TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false),
+        Arrays.asList(PERSON_B)), DAY_2);
+    EpochRange horizon = EpochRange.ofDays(DAY_1, 2);
+
+    List<EpochRange> actual =
+        index.firstSlots(Arrays.asList(PERSON_A, PERSON_B), horizon, DURATION_1_HOUR, NO_LIMIT);
+    List<EpochRange> expected = Arrays.asList(
+        EpochRange.fromStartEnd(horizon.start(), minute(DAY_1, TIME_0900AM)),
+        EpochRange.fromStartEnd(minute(DAY_1, TIME_1000AM), minute(DAY_2, TIME_1000AM)),
+        EpochRange.fromStartEnd(minute(DAY_2, TIME_1100AM), horizon.end()));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void overlappingAndTouchingEventsAreMerged() {
+    index.add(Arrays.asList(PERSON_A),
+        EpochRange.fromStartEnd(minute(DAY_1, TIME_0900AM), minute(DAY_1, TIME_1000AM)));
+    index.add(Arrays.asList(PERSON_A),
+        EpochRange.fromStartEnd(minute(DAY_1, TIME_1000AM), minute(DAY_1, TIME_1100AM)));
+    index.add(Arrays.asList(PERSON_B),
+        EpochRange.fromStartEnd(minute(DAY_1, TIME_0900AM) + 30, minute(DAY_1, TIME_1000AM)));
+    EpochRange horizon = EpochRange.ofDays(DAY_1, 1);
+
+    List<EpochRange> actual =
+        index.firstSlots(Arrays.asList(PERSON_A, PERSON_B), horizon, 1, NO_LIMIT);
+    List<EpochRange> expected = Arrays.asList(
+        EpochRange.fromStartEnd(horizon.start(), minute(DAY_1, TIME_0900AM)),
+        EpochRange.fromStartEnd(minute(DAY_1, TIME_1100AM), horizon.end()));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void stopsAfterLimit() {
+    for (long day = DAY_1; day < DAY_1 + 30; day++) {
+      index.add(new Event("Stand-up", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+          Arrays.asList(PERSON_A)), day);
+    }
+    EpochRange horizon = EpochRange.ofDays(DAY_1, 30);
+
+    List<EpochRange> actual =
+        index.firstSlots(Arrays.asList(PERSON_A), horizon, DURATION_1_HOUR, 2);
+    List<EpochRange> expected = Arrays.asList(
+        EpochRange.fromStartEnd(horizon.start(), minute(DAY_1, TIME_0900AM)),
+        EpochRange.fromStartEnd(minute(DAY_1, TIME_1000AM), minute(DAY_2, TIME_0900AM)));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void ignoresBusyTimesOutsideHorizon() {
+    index.add(new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_A)), DAY_1);
+    EpochRange horizon = EpochRange.ofDays(DAY_2, 1);
+
+    List<EpochRange> actual =
+        index.firstSlots(Arrays.asList(PERSON_A), horizon, DURATION_1_HOUR, NO_LIMIT);
+
+    Assert.assertEquals(Arrays.asList(horizon), actual);
+  }
+
+  @Test
+  public void queryFallsBackToMandatoryAttendees() {
+    // Person C is busy for the whole horizon, so only Person A's schedule matters.
+    EpochRange horizon = EpochRange.ofDays(DAY_1, 2);
+    index.add(Arrays.asList(PERSON_C), horizon);
+    index.add(new Event("Event 1", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_A)), DAY_2);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_1_HOUR);
+    request.addOptionalAttendee(PERSON_C);
+
+    Collection<EpochRange> actual = index.query(request, horizon, NO_LIMIT);
+    Collection<EpochRange> expected = Arrays.asList(
+        EpochRange.fromStartEnd(horizon.start(), minute(DAY_2, TIME_0900AM)),
+        EpochRange.fromStartEnd(minute(DAY_2, TIME_1000AM), horizon.end()));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void recurringEventsMatchTheirOccurrences() {
+    Random random = new Random(18);
+    HorizonIndex expanded = new HorizonIndex();
+    List<String> people = Arrays.asList(PERSON_A, PERSON_B, PERSON_C);
+    for (int i = 0; i < SERIES; i++) {
+      int start = random.nextInt(TimeRange.END_OF_DAY);
+      int end = Math.min(start + 1 + random.nextInt(180), TimeRange.END_OF_DAY + 1);
+      Event event = new Event("Event " + i, TimeRange.fromStartEnd(start, end, false),
+          Arrays.asList(people.get(random.nextInt(people.size()))));
+      Recurrence.Builder recurrence = random.nextBoolean()
+          ? Recurrence.daily(DAY_1 + random.nextInt(DAYS))
+          : Recurrence.weekly(DAY_1 + random.nextInt(DAYS), DayOfWeek.of(1 + random.nextInt(7)));
+      if (random.nextBoolean()) {
+        recurrence.count(1 + random.nextInt(5));
+      } else {
+        recurrence.except(DAY_1 + random.nextInt(DAYS));
+      }
+      RecurringEvent series = new RecurringEvent(event, recurrence.build());
+
+      index.add(series);
+      for (long day = DAY_1; day < DAY_1 + 2 * DAYS; day++) {
+        if (series.getRecurrence().occursOn(day)) {
+          expanded.add(event, day);
+        }
+      }
+    }
+
+    for (long day = DAY_1; day < DAY_1 + DAYS; day += 7) {
+      EpochRange horizon = EpochRange.fromStartEnd(minute(day, TimeRange.getTimeInMinutes(12, 0)),
+          minute(day + DAYS / 2, 0));
+      List<String> attendees = new ArrayList<>(people.subList(0, 1 + random.nextInt(3)));
+      int duration = 15 + random.nextInt(60);
+
+      Assert.assertEquals("day " + day, expanded.firstSlots(attendees, horizon, duration, 20),
+          index.firstSlots(attendees, horizon, duration, 20));
+    }
+  }
+
+  private static long minute(long epochDay, int minuteOfDay) {
+    return epochDay * EpochRange.MINUTES_PER_DAY + minuteOfDay;
+  }
+}
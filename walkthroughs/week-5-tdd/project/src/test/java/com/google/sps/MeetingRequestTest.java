@@ -44,4 +44,32 @@ public final class MeetingRequestTest {
     int expected = 0;
     Assert.assertEquals(expected, actual);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void unknownAttendeesDontGrowTheDictionary() {
+    AttendeeDictionary dictionary = AttendeeDictionary.getDefault();
+    MeetingRequest request = new MeetingRequest(
+        Arrays.asList("Made-up person 1", "Made-up person 2"), DURATION_1_HOUR);
+    request.addOptionalAttendee("Made-up person 3");
+    int before = dictionary.size();
+
+    Assert.assertEquals(0, request.getAttendeeIds().length);
+    Assert.assertEquals(0, request.getOptionalAttendeeIds().length);
+    Assert.assertEquals(before, dictionary.size());
+    Assert.assertEquals(-1, dictionary.lookup("Made-up person 1"));
+  }
+
+  @Test
+  public void attendeeIdsPickUpAttendeesWhoLaterGetEvents() {
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, "Late person"), DURATION_1_HOUR);
+    new Event("Event 1", TimeRange.fromStartDuration(0, DURATION_1_HOUR),
+        Arrays.asList(PERSON_A));
+    Assert.assertEquals(1, request.getAttendeeIds().length);
+
+    new Event("Event 2", TimeRange.fromStartDuration(0, DURATION_1_HOUR),
+        Arrays.asList("Late person"));
+
+    Assert.assertEquals(2, request.getAttendeeIds().length);
+  }
+}
@@ -0,0 +1,185 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class OptionalAttendanceOptimizerTest {
+  private static final Collection<String> NO_ATTENDEES = Collections.emptySet();
+
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+  private static final String PERSON_D = "Person D";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int CALENDARS = 2000;
+
+  private FindMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    query = new FindMeetingQuery();
+  }
+
+  @Test
+  public void overlappingEventsCountOptionalAttendeeOnce() {
+    // B is double booked in the morning, but is still only one person. Both halves of the day miss
+    // exactly one optional attendee, so both are returned.
+    //
+    // Events  : |--B--|
+    //              |--B------|
+    //                        |-------C--------|
+    // Day     : |-----------------------------|
+    // Options : |-----1------|-------2--------|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0830AM, false),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0800AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_C)));
+
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1000AM, false),
+            TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void onlyOptionalAttendeesMustAllFit() {
+    // Without mandatory attendees the optional ones are treated as mandatory, so a slot that
+    // misses one of them doesn't count.
+    //
+    // Events  : |---B---|
+    //                   |-------C---------|
+    // Day     : |-------------------------|
+    // Options :
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_1000AM, false),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_1000AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_C)));
+
+    MeetingRequest request = new MeetingRequest(NO_ATTENDEES, DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    request.addOptionalAttendee(PERSON_C);
+    request.addOptionalAttendee(PERSON_D);
+
+    Collection<TimeRange> actual = query.query(events, request);
+    Collection<TimeRange> expected = Arrays.asList();
+
+    Assert.assertEquals(expected, actual);
+  }
+
+  @Test
+  public void reusedOptimizerMatchesFreshOne() {
+    // Stale scratch buffers from an earlier request would show up here.
+    OptionalAttendanceOptimizer reused = new OptionalAttendanceOptimizer();
+    RandomCalendar calendar = new RandomCalendar(9);
+    for (int i = 0; i < CALENDARS; i++) {
+      Collection<Event> events = calendar.events();
+      MeetingRequest request = calendar.request();
+      Collection<TimeRange> openRanges =
+          query.getOpenRanges(query.mergeTimes(events, request), request);
+
+      Assert.assertEquals(new OptionalAttendanceOptimizer().optimize(openRanges, events, request),
+          reused.optimize(openRanges, events, request));
+    }
+  }
+
+  @Test
+  public void rankKeepsBestSlotsEarliestFirst() {
+    // Event 4 keeps both optional attendees away, the other slots miss one of them each.
+    //
+    // Events  :       |--A--|     |--B--|
+    //           |--C--|     |--C--|
+    //                       |--D--|     |--D--|
+    // Day     : |-----------------------------|
+    // Options : |--1--|     |--3--|     |--2--|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 3", TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            Arrays.asList(PERSON_C)),
+        new Event("Event 4", TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_C, PERSON_D)),
+        new Event("Event 5", TimeRange.fromStartEnd(TIME_0930AM, TimeRange.END_OF_DAY, true),
+            Arrays.asList(PERSON_D)));
+
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_C);
+    request.addOptionalAttendee(PERSON_D);
+
+    RankedSlot first =
+        new RankedSlot(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false), 1);
+    RankedSlot second =
+        new RankedSlot(TimeRange.fromStartEnd(TIME_0930AM, TimeRange.END_OF_DAY, true), 1);
+    RankedSlot third =
+        new RankedSlot(TimeRange.fromStartDuration(TIME_0830AM, DURATION_30_MINUTES), 0);
+
+    Assert.assertEquals(Arrays.asList(first), query.rank(events, request, 1));
+    Assert.assertEquals(Arrays.asList(first, second), query.rank(events, request, 2));
+    Assert.assertEquals(Arrays.asList(first, second, third), query.rank(events, request, 5));
+  }
+
+  @Test
+  public void rankWithLimitIsPrefixOfFullRanking() {
+    RandomCalendar calendar = new RandomCalendar(10);
+    for (int i = 0; i < CALENDARS; i++) {
+      Collection<Event> events = calendar.events();
+      MeetingRequest request = calendar.request();
+      List<RankedSlot> all = query.rank(events, request, Integer.MAX_VALUE);
+
+      for (int limit = 1; limit <= 3; limit++) {
+        Assert.assertEquals(all.subList(0, Math.min(limit, all.size())),
+            query.rank(events, request, limit));
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rankRejectsNonPositiveLimit() {
+    query.rank(Collections.<Event>emptySet(), new MeetingRequest(NO_ATTENDEES, 30), 0);
+  }
+}
@@ -0,0 +1,63 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class PackedFindMeetingQueryTest {
+  private static final int CALENDARS = 2000;
+
+  private FindMeetingQuery expectedQuery;
+  private PackedFindMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    expectedQuery = new FindMeetingQuery();
+    query = new PackedFindMeetingQuery();
+  }
+
+  @Test
+  public void matchesFindMeetingQueryOnDemoEvents() {
+    Collection<Event> events = Arrays.asList(Events.events);
+    MeetingRequest request = new MeetingRequest(Arrays.asList("Isabella", "Logan"), 30);
+    request.addOptionalAttendee("Amelia");
+    request.addOptionalAttendee("Emma");
+
+    Assert.assertEquals(expectedQuery.query(events, request), query.query(events, request));
+  }
+
+  @Test
+  public void matchesFindMeetingQueryOnRandomCalendars() {
+    // The same engine is reused for every calendar so stale scratch buffers would show up here.
+    RandomCalendar calendar = new RandomCalendar(42);
+    for (int i = 0; i < CALENDARS; i++) {
+      Collection<Event> events = calendar.events();
+      MeetingRequest request = calendar.request();
+
+      Collection<TimeRange> expected = expectedQuery.query(events, request);
+      Collection<TimeRange> actual = query.query(events, request);
+
+      Assert.assertEquals("calendar " + i, expected, actual);
+    }
+  }
+}
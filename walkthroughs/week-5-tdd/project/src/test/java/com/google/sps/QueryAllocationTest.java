@@ -0,0 +1,169 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Supplier;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Guards the query hot path against allocation creep. Every scenario runs a query on a fixed
+ * synthetic calendar, warms it up so the JIT has settled, and then measures the bytes the calling
+ * thread allocates per call through {@code com.sun.management.ThreadMXBean}. The budgets live in
+ * {@code allocation-budgets.properties}, in bytes per call, and a scenario over its budget fails
+ * the build. The tests are skipped on JVMs that can't measure thread allocation.
+ */
+@RunWith(JUnit4.class)
+public final class QueryAllocationTest {
+  private static final String BUDGETS = "/allocation-budgets.properties";
+  private static final int WARMUP_CALLS = 5000;
+  private static final int MEASURED_CALLS = 1000;
+
+  private static final int PEOPLE = 20;
+  private static final int SMALL_DAY = 50;
+  private static final int BUSY_DAY = 500;
+
+  private com.sun.management.ThreadMXBean threads;
+  private Properties budgets;
+
+  @Before
+  public void setUp() throws IOException {
+    Assume.assumeTrue(ManagementFactory.getThreadMXBean()
+        instanceof com.sun.management.ThreadMXBean);
+    threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+    threads.setThreadAllocatedMemoryEnabled(true);
+
+    budgets = new Properties();
+    try (InputStream in = QueryAllocationTest.class.getResourceAsStream(BUDGETS)) {
+      budgets.load(in);
+    }
+  }
+
+  @Test
+  public void mandatoryOnly() {
+    Collection<Event> events = day(SMALL_DAY);
+    MeetingRequest request = request(2, 0);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    assertWithinBudget("mandatoryOnly", () -> query.query(events, request));
+  }
+
+  @Test
+  public void optionalAttendees() {
+    Collection<Event> events = day(SMALL_DAY);
+    MeetingRequest request = request(2, 3);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    assertWithinBudget("optionalAttendees", () -> query.query(events, request));
+  }
+
+  @Test
+  public void busyDay() {
+    Collection<Event> events = day(BUSY_DAY);
+    MeetingRequest request = request(3, 5);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    assertWithinBudget("busyDay", () -> query.query(events, request));
+  }
+
+  @Test
+  public void busyDayFromEventStore() {
+    EventStore store = ColumnarEventStore.of(day(BUSY_DAY));
+    MeetingRequest request = request(3, 5);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    assertWithinBudget("busyDayFromEventStore", () -> query.query(store, request));
+  }
+
+  @Test
+  public void ranking() {
+    Collection<Event> events = day(BUSY_DAY);
+    MeetingRequest request = request(3, 5);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    assertWithinBudget("ranking", () -> query.rank(events, request, 5));
+  }
+
+  /**
+   * Runs the query until it is warm, then fails if it allocates more per call than the
+   * scenario's budget.
+   */
+  private void assertWithinBudget(String scenario, Supplier<?> query) {
+    String budget = budgets.getProperty(scenario);
+    Assert.assertNotNull("no budget for " + scenario, budget);
+
+    // Keep the results reachable, so the JIT can't drop the work.
+    Object sink = null;
+    for (int i = 0; i < WARMUP_CALLS; i++) {
+      sink = query.get();
+    }
+    long thread = Thread.currentThread().getId();
+    long before = threads.getThreadAllocatedBytes(thread);
+    for (int i = 0; i < MEASURED_CALLS; i++) {
+      sink = query.get();
+    }
+    long perCall = (threads.getThreadAllocatedBytes(thread) - before) / MEASURED_CALLS;
+
+    Assert.assertNotNull(sink);
+    Assert.assertTrue(scenario + " allocates " + perCall + " bytes per call, over its budget of "
+        + budget, perCall <= Long.parseLong(budget.trim()));
+  }
+
+  /**
+   * Returns a day of {@code count} events, each with two of the people, spread over the day.
+   */
+  private static Collection<Event> day(int count) {
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      int start = (i * 37) % (TimeRange.END_OF_DAY - 120);
+      int duration = 15 + (i * 13) % 90;
+      events.add(new Event("Event " + i, TimeRange.fromStartDuration(start, duration),
+          Arrays.asList(person(i % PEOPLE), person((i * 7 + 3) % PEOPLE))));
+    }
+    return events;
+  }
+
+  /**
+   * Returns a 30 minute request for the first people as mandatory and the next ones as optional.
+   */
+  private static MeetingRequest request(int mandatory, int optional) {
+    List<String> attendees = new ArrayList<>();
+    for (int i = 0; i < mandatory; i++) {
+      attendees.add(person(i));
+    }
+    MeetingRequest request = new MeetingRequest(attendees, 30);
+    for (int i = mandatory; i < mandatory + optional; i++) {
+      request.addOptionalAttendee(person(i));
+    }
+    return request;
+  }
+
+  private static String person(int i) {
+    return "Person " + i;
+  }
+}
@@ -0,0 +1,104 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryCacheTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int DURATION_30_MINUTES = 30;
+  private static final int DURATION_60_MINUTES = 60;
+
+  private QueryCache<String> cache;
+
+  @Before
+  public void setUp() {
+    cache = new QueryCache<>(2);
+  }
+
+  @Test
+  public void attendeeOrderDoesNotMatter() {
+    MeetingRequest request =
+        new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_C);
+    MeetingRequest reordered =
+        new MeetingRequest(Arrays.asList(PERSON_B, PERSON_A, PERSON_B), DURATION_30_MINUTES);
+    reordered.addOptionalAttendee(PERSON_C);
+
+    cache.put(QueryCache.Key.of(request, 0, 1), "answer");
+
+    Assert.assertEquals("answer", cache.get(QueryCache.Key.of(reordered, 0, 1)));
+    Assert.assertEquals(1, cache.getHits());
+    Assert.assertEquals(0, cache.getMisses());
+  }
+
+  @Test
+  public void differentQueriesMiss() {
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    MeetingRequest longer = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_60_MINUTES);
+    MeetingRequest optional = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    optional.addOptionalAttendee(PERSON_B);
+    MeetingRequest withRoom = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    withRoom.addRoom(new Room("Room 1", 4));
+
+    cache.put(QueryCache.Key.of(request, 0, 1), "answer");
+
+    Assert.assertNull(cache.get(QueryCache.Key.of(longer, 0, 1)));
+    Assert.assertNull(cache.get(QueryCache.Key.of(optional, 0, 1)));
+    Assert.assertNull(cache.get(QueryCache.Key.of(request, 3, 1)));
+    Assert.assertNull(cache.get(QueryCache.Key.of(withRoom, 0, 1)));
+    Assert.assertEquals(4, cache.getMisses());
+  }
+
+  @Test
+  public void calendarChangeMissesOldEntries() {
+    CalendarModel calendar = new CalendarModel();
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    cache.put(QueryCache.Key.of(request, 0, calendar.getVersion()), "answer");
+
+    calendar.add(new Event("Event 1", TimeRange.fromStartDuration(0, DURATION_30_MINUTES),
+        Arrays.asList(PERSON_A)));
+
+    Assert.assertNull(cache.get(QueryCache.Key.of(request, 0, calendar.getVersion())));
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsed() {
+    MeetingRequest a = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    MeetingRequest b = new MeetingRequest(Arrays.asList(PERSON_B), DURATION_30_MINUTES);
+    MeetingRequest c = new MeetingRequest(Arrays.asList(PERSON_C), DURATION_30_MINUTES);
+
+    cache.put(QueryCache.Key.of(a, 0, 1), "a");
+    cache.put(QueryCache.Key.of(b, 0, 1), "b");
+    // Touch a, so b becomes the least recently used entry.
+    cache.get(QueryCache.Key.of(a, 0, 1));
+    cache.put(QueryCache.Key.of(c, 0, 1), "c");
+
+    Assert.assertEquals(2, cache.size());
+    Assert.assertEquals("a", cache.get(QueryCache.Key.of(a, 0, 1)));
+    Assert.assertNull(cache.get(QueryCache.Key.of(b, 0, 1)));
+    Assert.assertEquals("c", cache.get(QueryCache.Key.of(c, 0, 1)));
+  }
+}
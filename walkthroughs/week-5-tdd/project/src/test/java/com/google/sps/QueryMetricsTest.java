@@ -0,0 +1,151 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.Arrays;
+import java.util.Collection;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryMetricsTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  private static final Collection<Event> EVENTS = Arrays.asList(
+      new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+          Arrays.asList(PERSON_A)),
+      new Event("Event 2", TimeRange.fromStartEnd(TIME_0900AM, TIME_1000AM, false),
+          Arrays.asList(PERSON_B)));
+
+  private QueryMetrics metrics;
+  private boolean wasEnabled;
+
+  @Before
+  public void setUp() {
+    metrics = QueryMetrics.getDefault();
+    wasEnabled = metrics.isEnabled();
+    metrics.reset();
+  }
+
+  @After
+  public void tearDown() {
+    metrics.setEnabled(wasEnabled);
+    metrics.reset();
+  }
+
+  @Test
+  public void disabledMetricsRecordNothing() {
+    metrics.setEnabled(false);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+
+    new FindMeetingQuery().query(EVENTS, request);
+
+    Assert.assertEquals(QueryMetrics.OFF, metrics.start());
+    for (QueryMetrics.Phase phase : QueryMetrics.Phase.values()) {
+      Assert.assertEquals(0, metrics.getPhase(phase).getCount());
+    }
+    Assert.assertEquals(0, metrics.getEvents().getCount());
+  }
+
+  @Test
+  public void queryRecordsEveryPhaseOnce() {
+    metrics.setEnabled(true);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+
+    Collection<TimeRange> answer = new FindMeetingQuery().query(EVENTS, request);
+
+    for (QueryMetrics.Phase phase : QueryMetrics.Phase.values()) {
+      Assert.assertEquals(phase.name(), 1, metrics.getPhase(phase).getCount());
+    }
+    Assert.assertEquals(EVENTS.size(), metrics.getEvents().getSum());
+    Assert.assertEquals(answer.size(), metrics.getResults().getSum());
+  }
+
+  @Test
+  public void indexQueriesRecordEveryPhaseOnce() {
+    metrics.setEnabled(true);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+    MeetingRequest roomRequest =
+        new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    roomRequest.addOptionalAttendee(PERSON_B);
+    roomRequest.addRoom(new Room("Room 1", 4));
+    CalendarIndex index = new CalendarIndex(EVENTS);
+    FindMeetingQuery query = new FindMeetingQuery();
+
+    query.query(new EventIntervalIndex(EVENTS), request, TimeRange.WHOLE_DAY);
+    query.query(index, request);
+    query.query(index, AvailabilityMasks.NONE, request);
+    query.queryRooms(index, AvailabilityMasks.NONE, roomRequest);
+
+    for (QueryMetrics.Phase phase : QueryMetrics.Phase.values()) {
+      Assert.assertEquals(phase.name(), 4, metrics.getPhase(phase).getCount());
+    }
+    Assert.assertEquals(4 * EVENTS.size(), metrics.getEvents().getSum());
+  }
+
+  @Test
+  public void storeQueryCountsOnlyTheOptionalAttendeesEvents() {
+    metrics.setEnabled(true);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    request.addOptionalAttendee(PERSON_B);
+
+    new FindMeetingQuery().query(ColumnarEventStore.of(EVENTS), request);
+
+    Assert.assertEquals(1, metrics.getPhase(QueryMetrics.Phase.TOTAL).getCount());
+    Assert.assertEquals(1, metrics.getEvents().getSum());
+  }
+
+  @Test
+  public void recordingAgainstOffDoesNothing() {
+    metrics.setEnabled(true);
+
+    Assert.assertEquals(QueryMetrics.OFF,
+        metrics.record(QueryMetrics.Phase.MERGE, QueryMetrics.OFF));
+    metrics.recordQuery(QueryMetrics.OFF, 1, 1);
+
+    Assert.assertEquals(0, metrics.getPhase(QueryMetrics.Phase.MERGE).getCount());
+    Assert.assertEquals(0, metrics.getPhase(QueryMetrics.Phase.TOTAL).getCount());
+  }
+
+  @Test
+  public void queueDepthIsOnlyRecordedWhileEnabled() {
+    metrics.setEnabled(false);
+    metrics.recordQueued(3);
+    metrics.recordRejected();
+
+    metrics.setEnabled(true);
+    metrics.recordQueued(5);
+    metrics.recordRejected();
+
+    Assert.assertEquals(1, metrics.getQueueDepth().getCount());
+    Assert.assertEquals(5, metrics.getQueueDepth().getMax());
+    Assert.assertEquals(2, metrics.getRejected());
+  }
+}
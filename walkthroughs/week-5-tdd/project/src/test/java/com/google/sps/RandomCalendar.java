@@ -0,0 +1,62 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/** Seeded random days of events and requests, for checking that query engines agree. */
+final class RandomCalendar {
+  private static final List<String> PEOPLE =
+      Arrays.asList("Person A", "Person B", "Person C", "Person D", "Person E", "Person F");
+  private static final int[] DURATIONS = {15, 30, 60, 90, 120};
+
+  private final Random random;
+
+  RandomCalendar(long seed) {
+    random = new Random(seed);
+  }
+
+  Collection<Event> events() {
+    int count = random.nextInt(12);
+    List<Event> events = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      int start = random.nextInt(TimeRange.WHOLE_DAY.end());
+      int end = Math.min(start + 5 + random.nextInt(240), TimeRange.WHOLE_DAY.end());
+      events.add(new Event("Event " + i, TimeRange.fromStartEnd(start, end, false),
+          people(1 + random.nextInt(3))));
+    }
+    return events;
+  }
+
+  MeetingRequest request() {
+    MeetingRequest request =
+        new MeetingRequest(people(random.nextInt(3)), DURATIONS[random.nextInt(DURATIONS.length)]);
+    for (String person : people(random.nextInt(4))) {
+      request.addOptionalAttendee(person);
+    }
+    return request;
+  }
+
+  private List<String> people(int count) {
+    List<String> people = new ArrayList<>(PEOPLE);
+    Collections.shuffle(people, random);
+    return people.subList(0, count);
+  }
+}
@@ -0,0 +1,122 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RecurrenceTest {
+  // Day 18262 is Wednesday, the first day of the year 2020.
+  private static final long DAY_1 = 18262;
+
+  private static final int RULES = 500;
+  private static final int DAYS = 120;
+
+  @Test
+  public void weekdaysFollowTheCalendar() {
+    for (long day = -10; day < DAY_1 + 10; day += 997) {
+      Assert.assertEquals(LocalDate.ofEpochDay(day).getDayOfWeek(), Recurrence.weekday(day));
+    }
+  }
+
+  @Test
+  public void weeklyOnSomeDays() {
+    Recurrence recurrence =
+        Recurrence.weekly(DAY_1, DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY).build();
+
+    Assert.assertTrue(recurrence.occursOn(DAY_1));
+    Assert.assertFalse(recurrence.occursOn(DAY_1 + 1));
+    Assert.assertFalse(recurrence.occursOn(DAY_1 - 2));
+    Assert.assertEquals(DAY_1 + 5, recurrence.nextOccurrence(DAY_1 + 1));
+  }
+
+  @Test
+  public void exceptionsCountTowardsTheCount() {
+    // Days    : 1 2 3 4
+    // Series  : x   x
+    // Left out:   x
+    Recurrence recurrence = Recurrence.daily(DAY_1).count(3).except(DAY_1 + 1).build();
+
+    Assert.assertTrue(recurrence.occursOn(DAY_1));
+    Assert.assertFalse(recurrence.occursOn(DAY_1 + 1));
+    Assert.assertTrue(recurrence.occursOn(DAY_1 + 2));
+    Assert.assertFalse(recurrence.occursOn(DAY_1 + 3));
+    Assert.assertEquals(DAY_1 + 2, recurrence.nextOccurrence(DAY_1 + 1));
+    Assert.assertEquals(Recurrence.NO_OCCURRENCE, recurrence.nextOccurrence(DAY_1 + 3));
+  }
+
+  @Test
+  public void untilIsTheLastDay() {
+    Recurrence recurrence = Recurrence.daily(DAY_1).until(DAY_1 + 1).build();
+
+    Assert.assertTrue(recurrence.occursOn(DAY_1 + 1));
+    Assert.assertFalse(recurrence.occursOn(DAY_1 + 2));
+    Assert.assertEquals(Recurrence.NO_OCCURRENCE, recurrence.nextOccurrence(DAY_1 + 2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void countMustBePositive() {
+    Recurrence.daily(DAY_1).count(0);
+  }
+
+  @Test
+  public void matchesListingEveryDay() {
+    Random random = new Random(18);
+    for (int i = 0; i < RULES; i++) {
+      Recurrence.Builder builder = random.nextBoolean() ? Recurrence.daily(DAY_1)
+          : Recurrence.weekly(DAY_1, DayOfWeek.of(1 + random.nextInt(7)),
+              DayOfWeek.of(1 + random.nextInt(7)));
+      int count = random.nextBoolean() ? 1 + random.nextInt(40) : Integer.MAX_VALUE;
+      if (count != Integer.MAX_VALUE) {
+        builder.count(count);
+      }
+      long lastDay = random.nextBoolean() ? DAY_1 + random.nextInt(DAYS) : Long.MAX_VALUE;
+      if (lastDay != Long.MAX_VALUE) {
+        builder.until(lastDay);
+      }
+      for (int e = random.nextInt(5); e > 0; e--) {
+        builder.except(DAY_1 + random.nextInt(DAYS));
+      }
+      Recurrence recurrence = builder.build();
+
+      // List the occurrences the slow way, one day at a time.
+      boolean[] expected = new boolean[DAYS];
+      int scheduled = 0;
+      for (int d = 0; d < DAYS && DAY_1 + d <= lastDay && scheduled < count; d++) {
+        if (recurrence.getWeekdays().contains(LocalDate.ofEpochDay(DAY_1 + d).getDayOfWeek())) {
+          scheduled++;
+          expected[d] = !recurrence.getExceptions().contains(DAY_1 + d);
+        }
+      }
+
+      long next = recurrence.nextOccurrence(DAY_1 - 3);
+      for (int d = 0; d < DAYS; d++) {
+        String message = recurrence + ", day " + d;
+        Assert.assertEquals(message, expected[d], recurrence.occursOn(DAY_1 + d));
+        if (expected[d]) {
+          Assert.assertEquals(message, DAY_1 + d, next);
+          next = recurrence.nextOccurrence(DAY_1 + d + 1);
+        }
+      }
+    }
+  }
+}
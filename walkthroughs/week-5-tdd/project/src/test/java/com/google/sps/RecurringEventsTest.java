@@ -0,0 +1,152 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class RecurringEventsTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  // Day 18262 is Wednesday, the first day of the year 2020.
+  private static final long DAY_1 = 18262;
+
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+  private static final int TIME_1100AM = TimeRange.getTimeInMinutes(11, 0);
+
+  private static final int DAYS = 60;
+
+  private FindMeetingQuery query;
+
+  @Before
+  public void setUp() {
+    query = new FindMeetingQuery();
+  }
+
+  @Test
+  public void onlyTheSeriesOfTheDayAreRead() {
+    Event standUp = new Event("Stand-up", TimeRange.fromStartEnd(TIME_0900AM, TIME_0930AM, false),
+        Arrays.asList(PERSON_A, PERSON_B));
+    Event review = new Event("Review", TimeRange.fromStartEnd(TIME_0930AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_B));
+    RecurringEvents events = new RecurringEvents(Arrays.asList(
+        new RecurringEvent(standUp, Recurrence.daily(DAY_1).except(DAY_1 + 1).build()),
+        new RecurringEvent(review, Recurrence.weekly(DAY_1, DayOfWeek.THURSDAY).build())));
+
+    Assert.assertEquals(Arrays.asList(standUp), events.onDay(DAY_1).getEvents());
+    Assert.assertEquals(Arrays.asList(review), events.onDay(DAY_1 + 1).getEvents());
+    Assert.assertEquals(1, events.onDay(DAY_1 + 1).size());
+    Assert.assertEquals(
+        Arrays.asList(standUp.getWhen(), review.getWhen()),
+        events.onDay(DAY_1 + 8).getMergedBusyTimes(Arrays.asList(PERSON_A, PERSON_B)));
+    Assert.assertTrue(events.onDay(DAY_1 - 1).getEventsFor(Arrays.asList(PERSON_B)).isEmpty());
+  }
+
+  @Test
+  public void queriesMatchQueryOverEveryDaysEvents() {
+    Random random = new Random(18);
+    RandomCalendar calendar = new RandomCalendar(18);
+    List<RecurringEvent> series = new ArrayList<>();
+    for (Event e : calendar.events()) {
+      series.add(new RecurringEvent(e, Recurrence.weekly(DAY_1 + random.nextInt(7),
+          DayOfWeek.of(1 + random.nextInt(7)), DayOfWeek.of(1 + random.nextInt(7)))
+          .count(1 + random.nextInt(10)).except(DAY_1 + random.nextInt(DAYS)).build()));
+    }
+    RecurringEvents events = new RecurringEvents(series);
+
+    for (long day = DAY_1; day < DAY_1 + DAYS; day++) {
+      List<Event> expanded = new ArrayList<>();
+      for (RecurringEvent s : series) {
+        if (s.getRecurrence().occursOn(day)) {
+          expanded.add(s.getEvent());
+        }
+      }
+      MeetingRequest request = calendar.request();
+
+      Assert.assertEquals("day " + day, query.query(expanded, request),
+          query.query(events.onDay(day), request));
+    }
+  }
+
+  @Test
+  public void mixedDayAvoidsOneOffAndRecurringEvents() {
+    // Series  :     |-A-|
+    // One-off :         |-B-|    |-A-|
+    // Day     : |---------------------------|
+    // Options : |---|       |----|   |------|
+    Event standUp = new Event("Stand-up", TimeRange.fromStartEnd(TIME_0900AM, TIME_0930AM, false),
+        Arrays.asList(PERSON_A));
+    Event review = new Event("Review", TimeRange.fromStartEnd(TIME_0930AM, TIME_1000AM, false),
+        Arrays.asList(PERSON_B));
+    Event lunch = new Event("Lunch", TimeRange.fromStartDuration(TIME_1100AM, 30),
+        Arrays.asList(PERSON_A));
+    RecurringEvents series = new RecurringEvents(Arrays.asList(
+        new RecurringEvent(standUp, Recurrence.daily(DAY_1).build())));
+    CalendarModel oneOffs = new CalendarModel(Arrays.asList(review, lunch));
+    EventStore day = series.onDay(DAY_1, oneOffs);
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A, PERSON_B), 30);
+
+    Collection<TimeRange> actual = query.query(day, request);
+    Collection<TimeRange> expected = Arrays.asList(
+        TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0900AM, false),
+        TimeRange.fromStartEnd(TIME_1000AM, TIME_1100AM, false),
+        TimeRange.fromStartEnd(TIME_1100AM + 30, TimeRange.END_OF_DAY, true));
+
+    Assert.assertEquals(expected, actual);
+    Assert.assertEquals(3, day.size());
+    Assert.assertEquals(new HashSet<>(Arrays.asList(standUp, review, lunch)),
+        new HashSet<>(day.getEvents()));
+    Assert.assertEquals(query.query(Arrays.asList(standUp, review, lunch), request), actual);
+  }
+
+  @Test
+  public void mixedDaysMatchQueryOverEveryDaysEvents() {
+    RandomCalendar calendar = new RandomCalendar(20);
+    List<RecurringEvent> series = new ArrayList<>();
+    for (Event e : calendar.events()) {
+      series.add(new RecurringEvent(e, Recurrence.daily(DAY_1).build()));
+    }
+    RecurringEvents events = new RecurringEvents(series);
+    CalendarModel oneOffs = new CalendarModel(calendar.events());
+
+    for (long day = DAY_1; day < DAY_1 + DAYS; day++) {
+      List<Event> expanded = new ArrayList<>(oneOffs.getEvents());
+      for (RecurringEvent s : series) {
+        expanded.add(s.getEvent());
+      }
+      MeetingRequest request = calendar.request();
+
+      Assert.assertEquals("day " + day, query.query(expanded, request),
+          query.query(events.onDay(day, oneOffs), request));
+      Assert.assertEquals("day " + day, new FindMeetingQuery(1).query(expanded, request),
+          new FindMeetingQuery(1).query(events.onDay(day, oneOffs), request));
+    }
+  }
+}
@@ -0,0 +1,135 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class SweepLineTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0830AM = TimeRange.getTimeInMinutes(8, 30);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+  private static final int TIME_1000AM = TimeRange.getTimeInMinutes(10, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  private SweepLine sweep;
+  private RecordingVisitor visitor;
+
+  @Before
+  public void setUp() {
+    sweep = new SweepLine();
+    visitor = new RecordingVisitor();
+  }
+
+  @Test
+  public void visitsEndpointsInTimeOrder() {
+    sweep.add(TIME_0900AM, TIME_1000AM, 1);
+    sweep.add(TIME_0800AM, TIME_0830AM, 2);
+
+    sweep.visit(visitor);
+
+    Assert.assertEquals(Arrays.asList(
+        Arrays.asList(TIME_0800AM, 2, 0),
+        Arrays.asList(TIME_0830AM, 0, 2),
+        Arrays.asList(TIME_0900AM, 1, 0),
+        Arrays.asList(TIME_1000AM, 0, 1)), visitor.visits);
+  }
+
+  @Test
+  public void sharedEndpointIsVisitedOnce() {
+    // Events  : |--1--|--2--|
+    sweep.add(TIME_0800AM, TIME_0830AM, 1);
+    sweep.add(TIME_0830AM, TIME_0900AM, 3);
+    sweep.add(TIME_0830AM, TIME_0900AM, 1);
+
+    sweep.visit(visitor);
+
+    Assert.assertEquals(Arrays.asList(
+        Arrays.asList(TIME_0800AM, 1, 0),
+        Arrays.asList(TIME_0830AM, 4, 1),
+        Arrays.asList(TIME_0900AM, 0, 4)), visitor.visits);
+  }
+
+  @Test
+  public void clearForgetsEveryRange() {
+    sweep.add(TIME_0800AM, TIME_0830AM, 1);
+    sweep.clear();
+    sweep.add(TIME_0900AM, TimeRange.WHOLE_DAY.end(), 1);
+
+    sweep.visit(visitor);
+
+    Assert.assertEquals(1, sweep.size());
+    Assert.assertEquals(Arrays.asList(
+        Arrays.asList(TIME_0900AM, 1, 0),
+        Arrays.asList(TimeRange.WHOLE_DAY.end(), 0, 1)), visitor.visits);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsRangeOutsideDay() {
+    sweep.add(TIME_0800AM, TimeRange.WHOLE_DAY.end() + 1, 1);
+  }
+
+  @Test
+  public void unavailabilityCountsBusyOptionalAttendees() {
+    // Events  :       |--B--|
+    //                    |---C---|
+    // Day     : |-------------------------|
+    // Slots   : |--0--|-1|-2|-1--|---0----|
+
+    Collection<Event> events = Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartEnd(TIME_0800AM, TIME_0900AM, false),
+            Arrays.asList(PERSON_B)),
+        new Event("Event 2", TimeRange.fromStartEnd(TIME_0830AM, TIME_1000AM, false),
+            Arrays.asList(PERSON_C)));
+    MeetingRequest request = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+
+    List<String> actual = new ArrayList<>();
+    for (TimeRangeAndUnavailable slot :
+        new FindMeetingQuery().getAllUnavailability(events, request)) {
+      actual.add(slot.toString());
+    }
+
+    Assert.assertEquals(Arrays.asList(
+        "0 - " + TIME_0800AM + ": 0",
+        TIME_0800AM + " - " + TIME_0830AM + ": 1",
+        TIME_0830AM + " - " + TIME_0900AM + ": 2",
+        TIME_0900AM + " - " + TIME_1000AM + ": 1",
+        TIME_1000AM + " - " + TimeRange.WHOLE_DAY.end() + ": 0"), actual);
+  }
+
+  /** Remembers every visit as a list of time, started and ended. */
+  private static final class RecordingVisitor implements SweepLine.Visitor {
+    private final List<List<Integer>> visits = new ArrayList<>();
+
+    @Override
+    public void visit(int time, int started, int ended) {
+      visits.add(Arrays.asList(time, started, ended));
+    }
+  }
+}
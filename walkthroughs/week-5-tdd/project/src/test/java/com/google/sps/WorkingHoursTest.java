@@ -0,0 +1,84 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class WorkingHoursTest {
+  private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+  // Monday 6 January 2020, and Monday 9 March 2020, the day after New York moved to summer time.
+  private static final Instant WINTER_MONDAY =
+      LocalDate.of(2020, 1, 6).atStartOfDay(ZoneOffset.UTC).toInstant();
+  private static final Instant SUMMER_MONDAY =
+      LocalDate.of(2020, 3, 9).atStartOfDay(ZoneOffset.UTC).toInstant();
+  private static final Instant SATURDAY =
+      LocalDate.of(2020, 1, 11).atStartOfDay(ZoneOffset.UTC).toInstant();
+
+  private static final LocalTime TIME_0600AM = LocalTime.of(6, 0);
+  private static final LocalTime TIME_0900AM = LocalTime.of(9, 0);
+  private static final LocalTime TIME_0500PM = LocalTime.of(17, 0);
+  private static final LocalTime TIME_1000PM = LocalTime.of(22, 0);
+
+  @Test
+  public void hoursAreShiftedToTheCalendarZone() {
+    WorkingHours hours = WorkingHours.weekdays(NEW_YORK, TIME_0900AM, TIME_0500PM);
+
+    assertWorking(hours.workingMinutes(WINTER_MONDAY), 14, 22);
+    assertWorking(hours.workingMinutes(SUMMER_MONDAY), 13, 21);
+  }
+
+  @Test
+  public void noHoursOnDaysOff() {
+    WorkingHours hours = WorkingHours.weekdays(ZoneOffset.UTC, TIME_0900AM, TIME_0500PM);
+
+    long[] working = hours.workingMinutes(SATURDAY);
+
+    Assert.assertEquals(MinuteBitmap.MINUTES, MinuteBitmap.nextSet(working, 0));
+  }
+
+  @Test
+  public void nightHoursRunPastMidnight() {
+    // Working:  |----|                    |--|
+    // Day    :  |0AM                         24|
+    WorkingHours hours = new WorkingHours(ZoneOffset.UTC, TIME_1000PM, TIME_0600AM,
+        EnumSet.allOf(DayOfWeek.class));
+
+    long[] working = hours.workingMinutes(WINTER_MONDAY);
+
+    Assert.assertEquals(0, MinuteBitmap.nextSet(working, 0));
+    Assert.assertEquals(6 * 60, MinuteBitmap.nextClear(working, 0));
+    Assert.assertEquals(22 * 60, MinuteBitmap.nextSet(working, 6 * 60));
+    Assert.assertEquals(MinuteBitmap.MINUTES, MinuteBitmap.nextClear(working, 22 * 60));
+  }
+
+  private static void assertWorking(long[] working, int startHour, int endHour) {
+    Assert.assertEquals(startHour * 60, MinuteBitmap.nextSet(working, 0));
+    Assert.assertEquals(endHour * 60, MinuteBitmap.nextClear(working, startHour * 60));
+    Assert.assertEquals(MinuteBitmap.MINUTES, MinuteBitmap.nextSet(working, endHour * 60));
+  }
+}
@@ -0,0 +1,109 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.CalendarModel;
+import com.google.sps.Event;
+import com.google.sps.TimeRange;
+import com.google.gson.Gson;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class EventsSnapshotTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0900AM = TimeRange.getTimeInMinutes(9, 0);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  private CalendarModel calendar;
+
+  @Before
+  public void setUp() {
+    calendar = new CalendarModel(Arrays.asList(
+        new Event("Event 1", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A)),
+        new Event("Event 2", TimeRange.fromStartDuration(TIME_0900AM, DURATION_30_MINUTES),
+            Arrays.asList(PERSON_A, PERSON_B))));
+  }
+
+  @Test
+  public void bodiesHoldTheEventsAsJson() throws IOException {
+    EventsSnapshot snapshot = EventsSnapshot.of(calendar);
+    String expected = new Gson().toJson(calendar.getEvents());
+
+    Assert.assertEquals(calendar.getVersion(), snapshot.getVersion());
+    Assert.assertEquals(expected, new String(snapshot.getBody(false), StandardCharsets.UTF_8));
+    Assert.assertEquals(expected,
+        new String(gunzip(snapshot.getBody(true)), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void encodingsHaveDifferentStrongTags() {
+    EventsSnapshot snapshot = EventsSnapshot.of(calendar);
+
+    Assert.assertNotEquals(snapshot.getETag(false), snapshot.getETag(true));
+    Assert.assertTrue(snapshot.getETag(false).startsWith("\""));
+    Assert.assertTrue(snapshot.getETag(false).endsWith("\""));
+  }
+
+  @Test
+  public void matchesItsOwnTags() {
+    EventsSnapshot snapshot = EventsSnapshot.of(calendar);
+
+    Assert.assertTrue(snapshot.matches(snapshot.getETag(false)));
+    Assert.assertTrue(snapshot.matches("\"other\", " + snapshot.getETag(true)));
+    Assert.assertTrue(snapshot.matches("W/" + snapshot.getETag(false)));
+    Assert.assertTrue(snapshot.matches("*"));
+    Assert.assertFalse(snapshot.matches("\"other\""));
+    Assert.assertFalse(snapshot.matches(null));
+  }
+
+  @Test
+  public void calendarChangeChangesTag() {
+    EventsSnapshot before = EventsSnapshot.of(calendar);
+    calendar.add(new Event("Event 3", TimeRange.fromStartDuration(TIME_0800AM, DURATION_30_MINUTES),
+        Arrays.asList(PERSON_B)));
+    EventsSnapshot after = EventsSnapshot.of(calendar);
+
+    Assert.assertNotEquals(before.getVersion(), after.getVersion());
+    Assert.assertFalse(after.matches(before.getETag(false)));
+  }
+
+  private static byte[] gunzip(byte[] bytes) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+      byte[] buffer = new byte[1024];
+      for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+        out.write(buffer, 0, read);
+      }
+    }
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,124 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.QueryMetrics;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryExecutorTest {
+  private static final long TIMEOUT_SECONDS = 10;
+
+  private QueryExecutor executor;
+  private CountDownLatch release;
+
+  @Before
+  public void setUp() {
+    executor = new QueryExecutor("test-query", 1, 1);
+    release = new CountDownLatch(1);
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    executor.shutdown();
+  }
+
+  @Test
+  public void runsSubmittedTasks() throws InterruptedException {
+    CountDownLatch ran = new CountDownLatch(1);
+
+    Assert.assertNotNull(executor.submit(ran::countDown));
+
+    Assert.assertTrue(ran.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void rejectsWhenTheQueueIsFull() throws InterruptedException {
+    long rejectedBefore = QueryMetrics.getDefault().getRejected();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch ranQueued = new CountDownLatch(1);
+
+    // The only thread is busy and the one queue slot is taken, so the third task is turned away.
+    Assert.assertNotNull(executor.submit(() -> {
+      started.countDown();
+      awaitRelease();
+    }));
+    Assert.assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    Assert.assertNotNull(executor.submit(ranQueued::countDown));
+    Assert.assertEquals(1, executor.getQueueDepth());
+    Assert.assertEquals(1, executor.getActiveCount());
+    Assert.assertNull(executor.submit(() -> Assert.fail("rejected task ran")));
+    Assert.assertEquals(rejectedBefore + 1, QueryMetrics.getDefault().getRejected());
+
+    release.countDown();
+    Assert.assertTrue(ranQueued.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void cancelledTasksDontRunOrGetInterrupted() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+
+    Future<?> running = executor.submit(() -> {
+      started.countDown();
+      try {
+        release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+    });
+    Assert.assertTrue(started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    Future<?> queued = executor.submit(() -> Assert.fail("cancelled task ran"));
+    Assert.assertTrue(queued.cancel(true));
+    Assert.assertEquals(0, executor.getQueueDepth());
+    Assert.assertTrue(running.cancel(true));
+
+    Assert.assertTrue(interrupted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    // The cancelled task gave up its slot, so the queue takes tasks again.
+    CountDownLatch ran = new CountDownLatch(1);
+    Assert.assertNotNull(executor.submit(ran::countDown));
+    Assert.assertTrue(ran.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void rejectsAfterShutdown() {
+    executor.shutdown();
+
+    Assert.assertNull(executor.submit(() -> Assert.fail("task ran after shutdown")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsEmptyQueue() {
+    new QueryExecutor("test-query", 1, 0);
+  }
+
+  private void awaitRelease() {
+    try {
+      release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,177 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.sps.MeetingRequest;
+import com.google.sps.QueryMetrics;
+import com.google.sps.RankedSlot;
+import com.google.sps.Room;
+import com.google.sps.RoomSlot;
+import com.google.sps.TimeRange;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/** */
+@RunWith(JUnit4.class)
+public final class QueryJsonTest {
+  private static final String PERSON_A = "Person A";
+  private static final String PERSON_B = "Person B";
+  private static final String PERSON_C = "Person C";
+
+  private static final int TIME_0800AM = TimeRange.getTimeInMinutes(8, 0);
+  private static final int TIME_0930AM = TimeRange.getTimeInMinutes(9, 30);
+
+  private static final int DURATION_30_MINUTES = 30;
+
+  @Test
+  public void readsRequestLikeTheWebPageSendsIt() throws IOException {
+    // The page sends the duration straight from the form, as a string.
+    MeetingRequest request = QueryJson.readRequest(new StringReader(
+        "{\"duration\":\"30\",\"attendees\":[\"Person A\",\"Person B\"],\"extra\":{\"x\":1}}"));
+
+    Assert.assertEquals(DURATION_30_MINUTES, request.getDuration());
+    Assert.assertEquals(2, request.getAttendees().size());
+    Assert.assertTrue(request.getAttendees().containsAll(Arrays.asList(PERSON_A, PERSON_B)));
+    Assert.assertTrue(request.getOptionalAttendees().isEmpty());
+  }
+
+  @Test
+  public void readsWhatGsonWrites() throws IOException {
+    MeetingRequest expected = new MeetingRequest(Arrays.asList(PERSON_A), DURATION_30_MINUTES);
+    expected.addOptionalAttendee(PERSON_B);
+    expected.addOptionalAttendee(PERSON_C);
+
+    MeetingRequest actual =
+        QueryJson.readRequest(new StringReader(new Gson().toJson(expected)));
+
+    Assert.assertEquals(new HashSet<>(expected.getAttendees()),
+        new HashSet<>(actual.getAttendees()));
+    Assert.assertEquals(new HashSet<>(expected.getOptionalAttendees()),
+        new HashSet<>(actual.getOptionalAttendees()));
+    Assert.assertEquals(expected.getDuration(), actual.getDuration());
+  }
+
+  @Test
+  public void readsRooms() throws IOException {
+    MeetingRequest request = QueryJson.readRequest(new StringReader(
+        "{\"duration\":30,\"attendees\":[\"Person A\"],"
+            + "\"rooms\":[{\"name\":\"Room 1\",\"capacity\":4},null]}"));
+
+    Assert.assertEquals(Arrays.asList(new Room("Room 1", 4)),
+        new ArrayList<>(request.getRooms()));
+  }
+
+  @Test(expected = JsonSyntaxException.class)
+  public void rejectsRoomWithoutName() throws IOException {
+    QueryJson.readRequest(new StringReader("{\"rooms\":[{\"capacity\":4}]}"));
+  }
+
+  @Test
+  public void writesRoomSlots() throws IOException {
+    StringWriter json = new StringWriter();
+    QueryJson.writeArray(json, QueryJson.ROOM_SLOT, Arrays.asList(new RoomSlot(
+        TimeRange.fromStartEnd(TIME_0800AM, TIME_0930AM, false), new Room("Room 1", 4))));
+
+    Assert.assertEquals(
+        "[{\"when\":{\"start\":480,\"duration\":90},"
+            + "\"room\":{\"name\":\"Room 1\",\"capacity\":4}}]",
+        json.toString());
+  }
+
+  @Test
+  public void readsEveryRequestOfABatch() throws IOException {
+    List<MeetingRequest> requests = QueryJson.readRequests(new StringReader(
+        "[{\"duration\":30,\"attendees\":[\"Person A\"]},"
+            + "{\"duration\":60,\"optional_attendees\":[\"Person B\"]}]"));
+
+    Assert.assertEquals(2, requests.size());
+    Assert.assertEquals(Arrays.asList(PERSON_A), new ArrayList<>(requests.get(0).getAttendees()));
+    Assert.assertEquals(Arrays.asList(PERSON_B),
+        new ArrayList<>(requests.get(1).getOptionalAttendees()));
+  }
+
+  @Test
+  public void emptyBodyIsNull() throws IOException {
+    Assert.assertNull(QueryJson.readRequest(new StringReader("")));
+    Assert.assertNull(QueryJson.readRequests(new StringReader("null")));
+  }
+
+  @Test(expected = JsonSyntaxException.class)
+  public void rejectsMalformedRequest() throws IOException {
+    QueryJson.readRequest(new StringReader("{\"duration\":\"soon\"}"));
+  }
+
+  @Test(expected = JsonSyntaxException.class)
+  public void rejectsTruncatedRequest() throws IOException {
+    QueryJson.readRequest(new StringReader("{\"attendees\":[\"Person A\""));
+  }
+
+  @Test
+  public void writesRangesLikeGson() throws IOException {
+    Collection<TimeRange> ranges =
+        Arrays.asList(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false),
+            TimeRange.fromStartEnd(TIME_0930AM, TimeRange.END_OF_DAY, true));
+    StringWriter writer = new StringWriter();
+
+    QueryJson.writeArray(writer, QueryJson.TIME_RANGE, ranges);
+
+    Assert.assertEquals(new Gson().toJson(ranges), writer.toString());
+  }
+
+  @Test
+  public void writesRankedSlotsLikeGson() throws IOException {
+    List<RankedSlot> slots = Arrays.asList(
+        new RankedSlot(TimeRange.fromStartEnd(TimeRange.START_OF_DAY, TIME_0800AM, false), 2),
+        new RankedSlot(TimeRange.fromStartEnd(TIME_0930AM, TimeRange.END_OF_DAY, true), 1));
+    StringWriter writer = new StringWriter();
+
+    QueryJson.writeArray(writer, QueryJson.RANKED_SLOT, slots);
+
+    Assert.assertEquals(new Gson().toJson(slots), writer.toString());
+  }
+
+  @Test
+  public void writesMetrics() throws IOException {
+    QueryMetrics metrics = new QueryMetrics(true);
+    metrics.recordQuery(metrics.start(), 3, 2);
+    StringWriter writer = new StringWriter();
+
+    QueryJson.writeMetrics(writer, metrics);
+
+    JsonObject json = new Gson().fromJson(writer.toString(), JsonObject.class);
+    Assert.assertTrue(json.get("enabled").getAsBoolean());
+    Assert.assertEquals(1, json.getAsJsonObject("phases").getAsJsonObject("TOTAL")
+        .get("count").getAsLong());
+    Assert.assertEquals(0, json.getAsJsonObject("phases").getAsJsonObject("MERGE")
+        .get("count").getAsLong());
+    Assert.assertEquals(3, json.getAsJsonObject("events").get("sum").getAsLong());
+    Assert.assertEquals(2, json.getAsJsonObject("results").get("max").getAsLong());
+    Assert.assertEquals(0, json.getAsJsonObject("queueDepth").get("count").getAsLong());
+    Assert.assertEquals(0, json.get("rejected").getAsLong());
+  }
+}